@@ -0,0 +1,88 @@
+package pedSim.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.javatuples.Pair;
+
+import pedSim.agents.Agent;
+import pedSim.engine.Environment;
+import pedSim.engine.Import;
+import pedSim.engine.Parameters;
+import pedSim.engine.PedSimCity;
+import pedSim.utilities.StringEnum.RouteChoice;
+import sim.graph.GraphUtils;
+import sim.graph.NodeGraph;
+
+/**
+ * Loads the bundled city data once per JVM and provides fixed, seeded samples
+ * of OD pairs and agents for the benchmarks. The resources directory is taken
+ * from the system property {@code pedsimcity.resources} (default
+ * {@code ../src/main/resources/}, i.e. when running from the benchmarks
+ * directory) and the city from {@code pedsimcity.city} (default Muenster).
+ */
+public class CityData {
+
+	private static boolean loaded = false;
+
+	/**
+	 * Imports the city data and prepares the environment, unless already done.
+	 *
+	 * @throws Exception If an error occurs during the import.
+	 */
+	public static synchronized void load() throws Exception {
+
+		if (loaded)
+			return;
+		Parameters.javaProject = true;
+		Parameters.localPath = System.getProperty("pedsimcity.resources", "../src/main/resources/");
+		Parameters.cityName = System.getProperty("pedsimcity.city", "Muenster");
+		Parameters.stringMode = "Testing Specific Route Choice Models";
+		Parameters.routeChoiceUser = RouteChoice.values();
+		Parameters.defineMode();
+
+		Import importer = new Import();
+		importer.importFiles();
+		Environment.prepare();
+		loaded = true;
+	}
+
+	/**
+	 * Samples OD pairs whose Euclidean distance lies between
+	 * {@code Parameters.minDistance} and {@code Parameters.maxDistance}.
+	 *
+	 * @param seed The seed of the sample.
+	 * @param size The number of OD pairs.
+	 * @return The OD pairs.
+	 */
+	public static List<Pair<NodeGraph, NodeGraph>> sampleODs(long seed, int size) {
+
+		List<NodeGraph> nodes = new ArrayList<>(PedSimCity.network.getNodes());
+		nodes.sort(Comparator.comparingInt(NodeGraph::getID));
+		Random random = new Random(seed);
+		List<Pair<NodeGraph, NodeGraph>> ODs = new ArrayList<>(size);
+		while (ODs.size() < size) {
+			NodeGraph originNode = nodes.get(random.nextInt(nodes.size()));
+			NodeGraph destinationNode = nodes.get(random.nextInt(nodes.size()));
+			double distance = GraphUtils.nodesDistance(originNode, destinationNode);
+			if (distance >= Parameters.minDistance && distance <= Parameters.maxDistance)
+				ODs.add(new Pair<>(originNode, destinationNode));
+		}
+		return ODs;
+	}
+
+	/**
+	 * Creates an agent with the given route choice model.
+	 *
+	 * @param routeChoice The route choice model.
+	 * @return The agent.
+	 */
+	public static Agent createAgent(RouteChoice routeChoice) {
+		Agent agent = new Agent(new PedSimCity(0L, 0));
+		agent.initialiseAgentProperties();
+		agent.getProperties().setRouteChoice(routeChoice);
+		return agent;
+	}
+}
@@ -0,0 +1,117 @@
+package pedSim.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.javatuples.Pair;
+import org.javatuples.Triplet;
+import org.locationtech.jts.planargraph.DirectedEdge;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pedSim.agents.Agent;
+import pedSim.dijkstra.DijkstraAngularChange;
+import pedSim.dijkstra.DijkstraGlobalLandmarks;
+import pedSim.dijkstra.DijkstraRoadDistance;
+import pedSim.utilities.StringEnum.RouteChoice;
+import sim.graph.NodeGraph;
+import sim.routing.RoutingUtils;
+
+/**
+ * Throughput of the single searches of the three Dijkstra variants over a
+ * fixed, seeded sample of OD pairs; each invocation routes the next OD pair of
+ * the sample. The number of settled nodes is reported as an auxiliary counter.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DijkstraBenchmark {
+
+	@Param({ "42" })
+	public long seed;
+
+	@Param({ "200" })
+	public int sampleSize;
+
+	private List<Pair<NodeGraph, NodeGraph>> ODs;
+	// dual origin, dual destination and (primal) destination for the angular change searches
+	private List<Triplet<NodeGraph, NodeGraph, NodeGraph>> dualODs;
+	private Agent distanceAgent, angularAgent, landmarksAgent;
+	private int next = 0, nextDual = 0;
+
+	/**
+	 * Counts the nodes settled by the searches.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class SettledNodes {
+		public long settledNodes;
+	}
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+
+		CityData.load();
+		ODs = CityData.sampleODs(seed, sampleSize);
+		distanceAgent = CityData.createAgent(RouteChoice.ROAD_DISTANCE);
+		angularAgent = CityData.createAgent(RouteChoice.ANGULAR_CHANGE);
+		landmarksAgent = CityData.createAgent(RouteChoice.DISTANT_LANDMARKS);
+
+		dualODs = new ArrayList<>();
+		for (Pair<NodeGraph, NodeGraph> OD : ODs) {
+			NodeGraph originNode = OD.getValue0();
+			NodeGraph destinationNode = OD.getValue1();
+			NodeGraph dualOrigin = originNode.getDualNode(originNode, destinationNode, false, null);
+			NodeGraph dualDestination = destinationNode.getDualNode(originNode, destinationNode, false, null);
+			if (dualOrigin == null || dualDestination == null || dualOrigin.equals(dualDestination)
+					|| RoutingUtils.getPrimalJunction(dualOrigin, dualDestination) != null)
+				continue;
+			dualODs.add(new Triplet<>(dualOrigin, dualDestination, destinationNode));
+		}
+	}
+
+	@Benchmark
+	public List<DirectedEdge> roadDistance(SettledNodes counter) {
+		Pair<NodeGraph, NodeGraph> OD = ODs.get(next++ % ODs.size());
+		DijkstraRoadDistance pathfinder = new DijkstraRoadDistance();
+		List<DirectedEdge> sequence = pathfinder.dijkstraAlgorithm(OD.getValue0(), OD.getValue1(), OD.getValue1(),
+				null, distanceAgent);
+		counter.settledNodes += pathfinder.settledNodes();
+		return sequence;
+	}
+
+	@Benchmark
+	public List<DirectedEdge> angularChange(SettledNodes counter) {
+		Triplet<NodeGraph, NodeGraph, NodeGraph> dualOD = dualODs.get(nextDual++ % dualODs.size());
+		DijkstraAngularChange pathfinder = new DijkstraAngularChange();
+		List<DirectedEdge> sequence = pathfinder.dijkstraAlgorithm(dualOD.getValue0(), dualOD.getValue1(),
+				dualOD.getValue2(), null, null, angularAgent);
+		counter.settledNodes += pathfinder.settledNodes();
+		return sequence;
+	}
+
+	@Benchmark
+	public List<DirectedEdge> globalLandmarks(SettledNodes counter) {
+		Pair<NodeGraph, NodeGraph> OD = ODs.get(next++ % ODs.size());
+		DijkstraGlobalLandmarks pathfinder = new DijkstraGlobalLandmarks();
+		List<DirectedEdge> sequence = pathfinder.dijkstraAlgorithm(OD.getValue0(), OD.getValue1(), OD.getValue1(),
+				null, landmarksAgent);
+		counter.settledNodes += pathfinder.settledNodes();
+		return sequence;
+	}
+}
@@ -0,0 +1,132 @@
+package pedSim.benchmarks;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+import sim.field.geo.VectorLayer;
+import sim.io.geo.ShapeFileExporter;
+import sim.util.geo.MasonGeometry;
+
+/**
+ * Generates a small, seeded landmark fixture for a city whose street network
+ * is available but whose landmark inputs (landmarks, sight lines, GPS tracks'
+ * distances) are not, so that the landmark-based modes can be benchmarked on
+ * it. The fixture directory holds a copy of the city's network and barriers,
+ * and:
+ * <ul>
+ * <li>{@code landmarks}: square buildings next to a sample of the junctions,
+ * with uniform local and global landmarkness scores;</li>
+ * <li>{@code sight_lines2D}: a sight line from every junction within
+ * {@value #SIGHT_DISTANCE} m of each building;</li>
+ * <li>{@code tracks_distances.csv}: trip lengths drawn uniformly between
+ * {@value #MIN_TRACK} and {@value #MAX_TRACK} m.</li>
+ * </ul>
+ * The scores and the visibility are synthetic: the fixture exercises the
+ * landmark-based route choice models, but its routes carry no empirical
+ * meaning.
+ */
+public class LandmarkFixture {
+
+	private static final int LANDMARKS = 200;
+	private static final double BUILDING_SIZE = 20.0;
+	private static final double BUILDING_OFFSET = 25.0;
+	private static final double SIGHT_DISTANCE = 500.0;
+	private static final int TRACKS = 255;
+	private static final double MIN_TRACK = 500.0;
+	private static final double MAX_TRACK = 3000.0;
+
+	private static final String[] COPIED_LAYERS = { "nodes", "edges", "nodesDual", "edgesDual", "barriers" };
+	private static final String[] SHAPEFILE_EXTENSIONS = { ".shp", ".shx", ".dbf", ".prj", ".cpg" };
+	private static final String[] COPIED_FILES = { "clusters.csv" };
+
+	/**
+	 * Generates the fixture in the given directory, unless already there.
+	 *
+	 * @param source The directory of the city's data.
+	 * @param target The directory of the fixture.
+	 * @param seed   The seed of the fixture.
+	 * @throws Exception If an error occurs while reading or writing the files.
+	 */
+	public static void generate(File source, File target, long seed) throws Exception {
+
+		if (new File(target, "tracks_distances.csv").exists())
+			return;
+		target.mkdirs();
+		for (String layer : COPIED_LAYERS)
+			for (String extension : SHAPEFILE_EXTENSIONS)
+				copy(new File(source, layer + extension), target);
+		for (String file : COPIED_FILES)
+			copy(new File(source, file), target);
+
+		VectorLayer nodes = new VectorLayer();
+		VectorLayer.readShapefile(new File(source, "nodes.shp").toURI().toURL(),
+				new File(source, "nodes.dbf").toURI().toURL(), nodes);
+		List<MasonGeometry> junctions = new ArrayList<>(nodes.getGeometries());
+		junctions.sort(Comparator.comparingInt(node -> node.getIntegerAttribute("nodeID")));
+
+		Random random = new Random(seed);
+		List<MasonGeometry> sample = new ArrayList<>(junctions);
+		Collections.shuffle(sample, random);
+		sample = sample.subList(0, Math.min(LANDMARKS, sample.size()));
+
+		GeometryFactory factory = new GeometryFactory();
+		VectorLayer landmarks = new VectorLayer();
+		VectorLayer sightLines = new VectorLayer();
+		for (int i = 0; i < sample.size(); i++) {
+			Coordinate node = sample.get(i).getGeometry().getCoordinate();
+			double x = node.x + BUILDING_OFFSET;
+			double y = node.y + BUILDING_OFFSET;
+			Geometry footprint = factory.toGeometry(new Envelope(x - BUILDING_SIZE / 2, x + BUILDING_SIZE / 2,
+					y - BUILDING_SIZE / 2, y + BUILDING_SIZE / 2));
+			int buildingID = i + 1;
+			MasonGeometry building = new MasonGeometry(footprint);
+			building.addIntegerAttribute("buildingID", buildingID);
+			building.addStringAttribute("land_use", "residential");
+			building.addStringAttribute("DMA", "live");
+			building.addDoubleAttribute("lScore_sc", random.nextDouble());
+			building.addDoubleAttribute("gScore_sc", random.nextDouble());
+			landmarks.addGeometry(building);
+
+			Coordinate centroid = footprint.getCentroid().getCoordinate();
+			for (MasonGeometry junction : junctions) {
+				Coordinate coordinate = junction.getGeometry().getCoordinate();
+				if (coordinate.distance(centroid) > SIGHT_DISTANCE)
+					continue;
+				MasonGeometry sightLine = new MasonGeometry(
+						factory.createLineString(new Coordinate[] { coordinate, centroid }));
+				sightLine.addIntegerAttribute("buildingID", buildingID);
+				sightLine.addIntegerAttribute("nodeID", junction.getIntegerAttribute("nodeID"));
+				sightLines.addGeometry(sightLine);
+			}
+		}
+		ShapeFileExporter.write(new File(target, "landmarks").getPath(), landmarks);
+		ShapeFileExporter.write(new File(target, "sight_lines2D").getPath(), sightLines);
+
+		// written last, as it marks the fixture as complete
+		try (FileWriter writer = new FileWriter(new File(target, "tracks_distances.csv"))) {
+			writer.write("uniqueID,trackID,length" + System.lineSeparator());
+			for (int track = 1; track <= TRACKS; track++)
+				writer.write(String.format(Locale.ROOT, "%d,%d,%.4f%n", track, track,
+						MIN_TRACK + random.nextDouble() * (MAX_TRACK - MIN_TRACK)));
+		}
+	}
+
+	private static void copy(File file, File directory) throws Exception {
+		if (file.exists())
+			Files.copy(file.toPath(), new File(directory, file.getName()).toPath(),
+					StandardCopyOption.REPLACE_EXISTING);
+	}
+}
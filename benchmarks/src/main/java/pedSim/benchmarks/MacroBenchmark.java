@@ -0,0 +1,532 @@
+package pedSim.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.javatuples.Pair;
+
+import pedSim.agents.Agent;
+import pedSim.engine.Environment;
+import pedSim.engine.Import;
+import pedSim.engine.Parameters;
+import pedSim.engine.PedSimCity;
+import pedSim.utilities.RouteData;
+import sim.graph.NodeGraph;
+
+/**
+ * End-to-end benchmark of the simulation modes, with a check on the
+ * equivalence of their outputs. Each configuration (city and mode, from
+ * {@code Parameters.defineMode}) is run in a separate JVM, with a fixed seed
+ * and a reduced number of trips and agents, recording the wall time, the time
+ * of each phase (import, prepare, populate, simulate, export), the peak heap
+ * and a hash of the walked routes.
+ * <p>
+ * The model draws its random values from the seed, except for the OD pairs,
+ * which are drawn by GeoMason-light. The OD pairs of each agent are hence
+ * stored with the baseline, in {@code macro-baselines/<configuration>.od.csv},
+ * and replayed in the following runs. The routes, as the sequence of edgeIDs
+ * walked for each OD pair and route choice model or group, are compared exactly
+ * with those of the baseline, in {@code macro-baselines/<configuration>.csv}:
+ * any route that differs marks the configuration as changed. Each
+ * configuration is run twice within its JVM, and fails as unstable when the
+ * two runs' routes differ.
+ * <p>
+ * When a city's street network is available but its landmark inputs are not,
+ * the {@code Testing Landmarks} mode runs on a {@link LandmarkFixture},
+ * generated in {@code target/fixtures}.
+ * <p>
+ * Usage: {@code MacroBenchmark ["City:Mode" ...]}, by default the modes on the
+ * cities allowed by the applet, skipping those whose input data are not
+ * available. The system properties {@code pedsimcity.resources},
+ * {@code pedsimcity.seed} (default 42), {@code pedsimcity.trips} (trips per
+ * agent, default 20), {@code pedsimcity.agents} (empirical agents, default 30)
+ * and {@code pedsimcity.updateBaselines} (default false) configure the runs.
+ */
+public class MacroBenchmark {
+
+	// the cities allowed for each mode, as in PedSimCityApplet.updateCityNameOptions
+	private static final String[][] CONFIGURATIONS = { { "Testing Landmarks", "London", "Muenster" },
+			{ "Testing Urban Subdivisions", "London", "Paris", "Muenster" }, { "Empirical ABM", "Muenster" } };
+	private static final String BASELINES_DIRECTORY = "macro-baselines";
+	private static final String OUTPUT_DIRECTORY = "target/macro-routes";
+	private static final String FIXTURES_DIRECTORY = "target/fixtures/";
+	private static final String REPORT_FILE = "target/macro-benchmark.csv";
+	private static final String RESULT_PREFIX = "RESULT\t";
+	private static final String[] COLUMNS = { "city", "mode", "seed", "trips", "wallMs", "importMs", "prepareMs",
+			"populateMs", "simulateMs", "exportMs", "peakHeapMB", "routes", "routesHash", "deterministic",
+			"routesChanged" };
+	private static final List<String> NETWORK_FILES = List.of("nodes.shp", "nodes.dbf", "edges.shp", "edges.dbf",
+			"nodesDual.shp", "nodesDual.dbf", "edgesDual.shp", "edgesDual.dbf");
+	private static final List<String> LANDMARK_FILES = List.of("landmarks.shp", "landmarks.dbf", "sight_lines2D.shp",
+			"sight_lines2D.dbf");
+
+	private static final long seed = Long.getLong("pedsimcity.seed", 42L);
+	private static final int trips = Integer.getInteger("pedsimcity.trips", 20);
+	private static final int empiricalAgents = Integer.getInteger("pedsimcity.agents", 30);
+	private static final String resources = System.getProperty("pedsimcity.resources", "../src/main/resources/");
+
+	/**
+	 * Runs the benchmark. When invoked with the {@code --run} flag, runs the
+	 * single configuration passed and prints its result; otherwise, forks a JVM
+	 * for each configuration and checks the results against the baselines.
+	 *
+	 * @param args The configurations as {@code City:Mode}, or
+	 *             {@code --run City Mode resources}.
+	 * @throws Exception If an error occurs while running the configurations.
+	 */
+	public static void main(String[] args) throws Exception {
+
+		if (args.length == 4 && args[0].equals("--run")) {
+			System.out.println(RESULT_PREFIX + String.join("\t", runConfiguration(args[1], args[2], args[3])));
+			System.exit(0);
+		}
+
+		List<String[]> configurations = new ArrayList<>();
+		if (args.length == 0)
+			for (String[] modeCities : CONFIGURATIONS)
+				for (int i = 1; i < modeCities.length; i++)
+					configurations.add(new String[] { modeCities[i], modeCities[0] });
+		else
+			for (String arg : args)
+				configurations.add(arg.split(":", 2));
+
+		System.exit(checkResults(configurations) ? 0 : 1);
+	}
+
+	/**
+	 * Runs the configurations in separate JVMs and compares their routes with the
+	 * baselines, writing the report.
+	 *
+	 * @param configurations The configurations (city, mode) to run.
+	 * @return True if no configuration failed, changed its results or was
+	 *         unstable; otherwise, false.
+	 * @throws Exception If an error occurs while running the configurations or
+	 *                   writing the files.
+	 */
+	private static boolean checkResults(List<String[]> configurations) throws Exception {
+
+		boolean updateBaselines = Boolean.getBoolean("pedsimcity.updateBaselines");
+		boolean passed = true;
+		new File(BASELINES_DIRECTORY).mkdirs();
+
+		List<String> rows = new ArrayList<>();
+		rows.add(String.join(",", COLUMNS) + ",status");
+		for (String[] configuration : configurations) {
+			String city = configuration[0];
+			String mode = configuration[1];
+			String configurationResources = resourcesFor(city, mode);
+			if (configurationResources == null)
+				continue;
+
+			String key = configurationKey(city, mode);
+			String[] result = fork(city, mode, configurationResources);
+			String status;
+			if (result == null) {
+				status = "ERROR";
+				result = new String[] { city, mode };
+				passed = false;
+			} else {
+				File routes = new File(OUTPUT_DIRECTORY, key + ".csv");
+				File ODs = new File(OUTPUT_DIRECTORY, key + ".od.csv");
+				File baselineRoutes = new File(BASELINES_DIRECTORY, key + ".csv");
+				File baselineODs = new File(BASELINES_DIRECTORY, key + ".od.csv");
+				int routesChanged = 0;
+				if (!Boolean.parseBoolean(result[13]))
+					status = "UNSTABLE";
+				else if (!baselineRoutes.exists() || updateBaselines) {
+					status = baselineRoutes.exists() ? "UPDATED" : "NEW";
+					Files.copy(routes.toPath(), baselineRoutes.toPath(), StandardCopyOption.REPLACE_EXISTING);
+					Files.copy(ODs.toPath(), baselineODs.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				} else {
+					routesChanged = changedRoutes(Files.readAllLines(baselineRoutes.toPath()),
+							Files.readAllLines(routes.toPath()));
+					status = routesChanged == 0 ? "SAME" : "CHANGED";
+				}
+				if (status.equals("UNSTABLE") || status.equals("CHANGED"))
+					passed = false;
+				result = Arrays.copyOf(result, COLUMNS.length);
+				result[14] = Integer.toString(routesChanged);
+			}
+			rows.add(String.join(",", result) + "," + status);
+			System.out.println(String.join(" | ", result) + " | " + status);
+		}
+
+		new File(REPORT_FILE).getParentFile().mkdirs();
+		try (FileWriter writer = new FileWriter(REPORT_FILE)) {
+			for (String row : rows)
+				writer.write(row + System.lineSeparator());
+		}
+		return passed;
+	}
+
+	/**
+	 * Counts the routes of a run that do not appear in the baseline, or the
+	 * baseline's routes missing from the run, whichever is larger.
+	 *
+	 * @param baseline The baseline's routes.
+	 * @param routes   The run's routes.
+	 * @return The number of changed routes.
+	 */
+	private static int changedRoutes(List<String> baseline, List<String> routes) {
+
+		// route -> occurrences in the baseline, less those in the run
+		Map<String, Integer> counts = new HashMap<>();
+		for (String route : baseline)
+			counts.merge(route, 1, Integer::sum);
+		for (String route : routes)
+			counts.merge(route, -1, Integer::sum);
+
+		int added = 0;
+		int missing = 0;
+		for (int count : counts.values())
+			if (count > 0)
+				missing += count;
+			else
+				added -= count;
+		return Math.max(added, missing);
+	}
+
+	/**
+	 * Returns the resources' directory of a configuration: the bundled data or,
+	 * when only the landmark inputs of the {@code Testing Landmarks} mode are
+	 * missing, a generated {@link LandmarkFixture}.
+	 *
+	 * @param city The city.
+	 * @param mode The simulation mode.
+	 * @return The resources' directory, or null if the configuration cannot run.
+	 * @throws Exception If an error occurs while generating the fixture.
+	 */
+	private static String resourcesFor(String city, String mode) throws Exception {
+
+		String missing = missingInput(resources, city, mode);
+		if (missing == null)
+			return resources;
+
+		if (mode.equals("Testing Landmarks") && (missing.equals("tracks_distances.csv")
+				|| LANDMARK_FILES.contains(missing))) {
+			File source = new File(cityDirectory(resources, city, mode));
+			File target = new File(cityDirectory(FIXTURES_DIRECTORY, city, mode));
+			if (missingInput(resources, city, "Network") == null) {
+				LandmarkFixture.generate(source, target, seed);
+				System.out.println(city + " | " + mode + " | LANDMARK FIXTURE (no " + missing + ")");
+				return FIXTURES_DIRECTORY;
+			}
+		}
+		System.out.println(city + " | " + mode + " | SKIPPED (no " + missing + ")");
+		return null;
+	}
+
+	/**
+	 * Runs a configuration in a new JVM, with the same classpath and JVM
+	 * arguments as the current one.
+	 *
+	 * @param city                   The city.
+	 * @param mode                   The simulation mode.
+	 * @param configurationResources The resources' directory.
+	 * @return The result of the configuration, or null if the run failed.
+	 * @throws Exception If the JVM cannot be started.
+	 */
+	private static String[] fork(String city, String mode, String configurationResources) throws Exception {
+
+		List<String> command = new ArrayList<>();
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(MacroBenchmark.class.getName());
+		command.add("--run");
+		command.add(city);
+		command.add(mode);
+		command.add(configurationResources);
+
+		Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+		String[] result = null;
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith(RESULT_PREFIX))
+					result = line.substring(RESULT_PREFIX.length()).split("\t", -1);
+				else if (Parameters.verboseMode)
+					System.out.println(line);
+			}
+		}
+		return process.waitFor() == 0 ? result : null;
+	}
+
+	/**
+	 * Runs a configuration in the current JVM: imports the data, prepares the
+	 * environment and runs the simulation twice with the same seed and OD pairs,
+	 * writing the routes and the OD pairs of the first run in
+	 * {@code target/macro-routes}.
+	 *
+	 * @param city                   The city.
+	 * @param mode                   The simulation mode.
+	 * @param configurationResources The resources' directory.
+	 * @return The result, with the values in the order of the report's columns,
+	 *         but the number of changed routes.
+	 * @throws Exception If an error occurs during the simulation.
+	 */
+	private static String[] runConfiguration(String city, String mode, String configurationResources)
+			throws Exception {
+
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			pool.resetPeakUsage();
+		long start = System.nanoTime();
+
+		Parameters.javaProject = true;
+		Parameters.localPath = configurationResources;
+		Parameters.cityName = city;
+		Parameters.stringMode = mode;
+		Parameters.defineMode();
+		Parameters.jobs = 1;
+		Parameters.numberTripsPerAgent = trips;
+		if (Parameters.empirical)
+			Parameters.numAgents = empiricalAgents;
+
+		long importStart = System.nanoTime();
+		Import importer = new Import();
+		importer.importFiles();
+		long prepareStart = System.nanoTime();
+		Environment.prepare();
+		long prepareEnd = System.nanoTime();
+
+		String key = configurationKey(city, mode);
+		File baselineODs = new File(BASELINES_DIRECTORY, key + ".od.csv");
+		List<List<Pair<Integer, Integer>>> ODs = baselineODs.exists()
+				? readODs(Files.readAllLines(baselineODs.toPath()))
+				: null;
+
+		BenchmarkState state = new BenchmarkState(seed, ODs);
+		state.run();
+		long end = System.nanoTime();
+		List<String> routes = routes(state);
+
+		// a second run, with the same OD pairs, to detect any randomness left unseeded
+		BenchmarkState check = new BenchmarkState(seed, state.ODs);
+		check.run();
+		boolean deterministic = routes.equals(routes(check));
+
+		File output = new File(OUTPUT_DIRECTORY);
+		output.mkdirs();
+		Files.write(new File(output, key + ".csv").toPath(), routes, StandardCharsets.UTF_8);
+		Files.write(new File(output, key + ".od.csv").toPath(), writeODs(state.ODs), StandardCharsets.UTF_8);
+
+		long peakHeap = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null)
+				peakHeap += pool.getPeakUsage().getUsed();
+
+		return new String[] { city, mode, Long.toString(seed), Integer.toString(trips), millis(end - start),
+				millis(prepareStart - importStart), millis(prepareEnd - prepareStart), millis(state.populateTime),
+				millis(state.simulateTime - state.exportTime), millis(state.exportTime),
+				Long.toString(peakHeap / (1024 * 1024)), Integer.toString(routes.size()), hash(routes),
+				Boolean.toString(deterministic) };
+	}
+
+	/**
+	 * Lists the routes walked in a run, as
+	 * {@code column,origin,destination,edgeIDs}, with the edgeIDs separated by
+	 * spaces, in ascending order.
+	 *
+	 * @param state The simulation state.
+	 * @return The routes.
+	 */
+	private static List<String> routes(PedSimCity state) {
+
+		List<String> routes = new ArrayList<>();
+		for (RouteData routeData : state.flowHandler.routesData)
+			routes.add(routeData.scenario + "," + routeData.origin + "," + routeData.destination + ","
+					+ routeData.edgeIDsSequence.stream().map(String::valueOf).collect(Collectors.joining(" ")));
+		Collections.sort(routes);
+		return routes;
+	}
+
+	/**
+	 * Computes the SHA-256 hash of the routes of a run.
+	 *
+	 * @param routes The routes, in ascending order.
+	 * @return The hash, as a hexadecimal string.
+	 * @throws Exception If the hash algorithm is not available.
+	 */
+	private static String hash(List<String> routes) throws Exception {
+
+		MessageDigest digest = MessageDigest.getInstance("SHA-256");
+		for (String route : routes)
+			digest.update((route + '\n').getBytes(StandardCharsets.UTF_8));
+
+		StringBuilder hex = new StringBuilder();
+		for (byte b : digest.digest())
+			hex.append(String.format("%02x", b));
+		return hex.toString();
+	}
+
+	/**
+	 * Parses the OD pairs of the agents, listed as {@code agent,origin,destination}
+	 * in the agents' and trips' order.
+	 *
+	 * @param lines The lines of the OD file.
+	 * @return The OD pairs of each agent, as nodeIDs.
+	 */
+	private static List<List<Pair<Integer, Integer>>> readODs(List<String> lines) {
+
+		List<List<Pair<Integer, Integer>>> ODs = new ArrayList<>();
+		for (String line : lines) {
+			String[] values = line.split(",");
+			int agent = Integer.parseInt(values[0]);
+			while (ODs.size() <= agent)
+				ODs.add(new ArrayList<>());
+			ODs.get(agent).add(new Pair<>(Integer.parseInt(values[1]), Integer.parseInt(values[2])));
+		}
+		return ODs;
+	}
+
+	private static List<String> writeODs(List<List<Pair<Integer, Integer>>> ODs) {
+
+		List<String> lines = new ArrayList<>();
+		for (int agent = 0; agent < ODs.size(); agent++)
+			for (Pair<Integer, Integer> OD : ODs.get(agent))
+				lines.add(agent + "," + OD.getValue0() + "," + OD.getValue1());
+		return lines;
+	}
+
+	/**
+	 * Checks whether the input data required by a mode are available for a city.
+	 *
+	 * @param directory The resources' directory.
+	 * @param city      The city.
+	 * @param mode      The simulation mode, or "Network" for the street network
+	 *                  only.
+	 * @return The name of the first missing file, or null if none is missing.
+	 */
+	private static String missingInput(String directory, String city, String mode) {
+
+		List<String> files = new ArrayList<>(NETWORK_FILES);
+		if (mode.equals("Testing Landmarks")) {
+			files.add("tracks_distances.csv");
+			files.addAll(LANDMARK_FILES);
+		} else if (mode.equals("Testing Urban Subdivisions"))
+			files.addAll(List.of("barriers.shp", "barriers.dbf"));
+		else if (mode.equals("Empirical ABM")) {
+			files.addAll(LANDMARK_FILES);
+			files.addAll(List.of("barriers.shp", "barriers.dbf", "clusters.csv"));
+		}
+
+		String cityDirectory = cityDirectory(directory, city, mode);
+		for (String file : files)
+			if (!new File(cityDirectory, file).exists())
+				return file;
+		return null;
+	}
+
+	/**
+	 * Returns the directory of a city's data for a mode, as in
+	 * {@code Import.importFiles}.
+	 */
+	private static String cityDirectory(String directory, String city, String mode) {
+		if (city.equals("London") && mode.equals("Testing Landmarks"))
+			return directory + city + "/landmarks";
+		if (city.equals("London") && mode.equals("Testing Urban Subdivisions"))
+			return directory + city + "/subdivisions";
+		return directory + city;
+	}
+
+	private static String configurationKey(String city, String mode) {
+		String key = city + "." + mode + "." + seed + "." + trips;
+		if (mode.equals("Empirical ABM"))
+			key += "." + empiricalAgents;
+		return key.replace(' ', '_');
+	}
+
+	private static String millis(long nanos) {
+		return Long.toString(nanos / 1_000_000);
+	}
+
+	/**
+	 * The simulation state, timing the populating phase (at start) and the
+	 * export of the results (at finish). Routes are planned while the agents
+	 * walk, hence within the simulate phase, unless planned in batch. When OD
+	 * pairs are passed, they replace those drawn while populating; otherwise, the
+	 * drawn ones are recorded.
+	 */
+	private static class BenchmarkState extends PedSimCity {
+		private static final long serialVersionUID = 1L;
+
+		long populateTime;
+		long simulateTime;
+		long exportTime;
+		// OD pairs of each agent, as nodeIDs
+		List<List<Pair<Integer, Integer>>> ODs;
+
+		BenchmarkState(long seed, List<List<Pair<Integer, Integer>>> ODs) {
+			super(seed, 0);
+			this.ODs = ODs;
+		}
+
+		void run() {
+			long start = System.nanoTime();
+			start();
+			if (ODs == null)
+				recordODs();
+			else
+				replayODs();
+			populateTime = System.nanoTime() - start;
+			start = System.nanoTime();
+			while (schedule.step(this)) {
+			}
+			simulateTime = System.nanoTime() - start;
+		}
+
+		private void recordODs() {
+			ODs = new ArrayList<>();
+			for (Agent agent : agentsList) {
+				List<Pair<Integer, Integer>> agentODs = new ArrayList<>();
+				for (Pair<NodeGraph, NodeGraph> OD : agent.OD)
+					agentODs.add(new Pair<>(OD.getValue0().getID(), OD.getValue1().getID()));
+				ODs.add(agentODs);
+			}
+		}
+
+		private void replayODs() {
+			if (ODs.size() != agentsList.size())
+				throw new IllegalStateException("The stored OD pairs are for " + ODs.size() + " agents, not "
+						+ agentsList.size() + ": update the baselines.");
+			for (int i = 0; i < agentsList.size(); i++) {
+				Agent agent = agentsList.get(i);
+				if (ODs.get(i).size() != agent.OD.size())
+					throw new IllegalStateException("The stored OD pairs of agent " + i + " are for " + ODs.get(i).size()
+							+ " trips, not " + agent.OD.size() + ": update the baselines.");
+				List<Pair<NodeGraph, NodeGraph>> agentODs = new LinkedList<>();
+				for (Pair<Integer, Integer> OD : ODs.get(i))
+					agentODs.add(new Pair<>(PedSimCity.nodesMap.get(OD.getValue0()),
+							PedSimCity.nodesMap.get(OD.getValue1())));
+				agent.OD = agentODs;
+			}
+		}
+
+		@Override
+		public void finish() {
+			if (exportTime > 0)
+				return;
+			long start = System.nanoTime();
+			super.finish();
+			exportTime = Math.max(1, System.nanoTime() - start);
+		}
+	}
+}
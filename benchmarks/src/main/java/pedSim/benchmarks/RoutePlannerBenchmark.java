@@ -0,0 +1,66 @@
+package pedSim.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.javatuples.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pedSim.agents.Agent;
+import pedSim.routeChoice.Route;
+import pedSim.routeChoice.RoutePlanner;
+import pedSim.utilities.StringEnum.RouteChoice;
+import sim.graph.NodeGraph;
+
+/**
+ * Throughput of the full route planning ({@link RoutePlanner#definePath()}) for
+ * every route choice model, over a fixed, seeded sample of OD pairs; each
+ * invocation plans the route for the next OD pair of the sample.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoutePlannerBenchmark {
+
+	// all the route choice models, when not specified
+	@Param
+	public RouteChoice routeChoice;
+
+	@Param({ "42" })
+	public long seed;
+
+	@Param({ "100" })
+	public int sampleSize;
+
+	private List<Pair<NodeGraph, NodeGraph>> ODs;
+	private Agent agent;
+	private int next = 0;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		CityData.load();
+		ODs = CityData.sampleODs(seed, sampleSize);
+		agent = CityData.createAgent(routeChoice);
+	}
+
+	@Benchmark
+	public Route definePath() throws Exception {
+		Pair<NodeGraph, NodeGraph> OD = ODs.get(next++ % ODs.size());
+		RoutePlanner planner = new RoutePlanner(OD.getValue0(), OD.getValue1(), agent);
+		return planner.definePath();
+	}
+}
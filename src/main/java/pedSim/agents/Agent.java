@@ -1,16 +1,22 @@
 package pedSim.agents;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.javatuples.Pair;
 import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
 import org.locationtech.jts.geom.GeometryFactory;
-import org.locationtech.jts.geom.LineString;
-import org.locationtech.jts.linearref.LengthIndexedLine;
+import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.planargraph.DirectedEdge;
 
+import ec.util.MersenneTwisterFast;
+import pedSim.engine.Metrics;
 import pedSim.engine.Parameters;
 import pedSim.engine.PedSimCity;
 import pedSim.routeChoice.RoutePlanner;
@@ -21,7 +27,6 @@ import sim.graph.EdgeGraph;
 import sim.graph.NodeGraph;
 import sim.routing.Route;
 import sim.util.geo.MasonGeometry;
-import sim.util.geo.PointMoveTo;
 
 /**
  * This class represents an agent in the pedestrian simulation. Agents move
@@ -61,9 +66,25 @@ public final class Agent implements Steppable {
 	int linkDirection = 1;
 	int indexOnEdgesSequence = 0;
 	int pathDirection = 1;
-	protected LengthIndexedLine indexedSegment = null;
+	// reused when locating the agent along the current edge
+	private final Coordinate positionAlongEdge = new Coordinate();
+
+	// event-driven mode: start time of the current trip and, for each step of the
+	// trip, the edge (index on the route) and the index along it where the agent
+	// is at the end of the step
+	double tripStartTime = 0.0;
+	private int[] stepEdges = null;
+	private double[] stepIndices = null;
+	private int tripSteps = 0;
 	public Route route = new Route();
 
+	// indices (in PedSimCity.buildingsMap) of the local landmarks known by the agent
+	private BitSet knownLocalLandmarks = null;
+	// position in the simulation's agents list
+	private int listIndex = -1;
+	// paths planned in advance for some of the trips, by trip index
+	private Map<Integer, List<DirectedEdge>> plannedSequences = new HashMap<>();
+
 	/**
 	 * Constructor Function. Creates a new agent with the specified agent
 	 * properties.
@@ -102,25 +123,40 @@ public final class Agent implements Steppable {
 	}
 
 	/**
-	 * Moves the agent to the given coordinates.
+	 * Moves the agent to the given coordinates, updating its point in place.
 	 *
 	 * @param c the coordinates.
 	 */
 	public void updateAgentPosition(Coordinate c) {
-		PointMoveTo pointMoveTo = new PointMoveTo();
-		pointMoveTo.setCoordinate(c);
-		state.agents.setGeometryLocation(agentLocation, pointMoveTo);
+		Point point = (Point) agentLocation.geometry;
+		point.getCoordinateSequence().setOrdinate(0, CoordinateSequence.X, c.x);
+		point.getCoordinateSequence().setOrdinate(0, CoordinateSequence.Y, c.y);
+		point.geometryChanged();
+	}
+
+	/**
+	 * Moves the agent to the point at the given index (distance from the start of
+	 * the line) along the current edge.
+	 *
+	 * @param index The index along the current edge.
+	 */
+	private void updateAgentPosition(double index) {
+		EdgeLines.extractPoint(currentEdge, index, positionAlongEdge);
+		updateAgentPosition(positionAlongEdge);
 	}
 
 	/**
-	 * Performs agent's stepping action in the simulation.
+	 * Performs agent's stepping action in the simulation. In the event-driven mode
+	 * the agent is only stepped when starting a trip (see
+	 * {@link #scheduleArrival()}).
 	 *
 	 * @param state The simulation state.
 	 */
 	@Override
 	public void step(SimState state) {
 
-		if (reachedDestination || destinationNode == null)
+		// in the event-driven mode the agent is only stepped at the trip's end
+		if (reachedDestination || destinationNode == null || Parameters.eventDriven)
 			try {
 				handleReachedDestination();
 			} catch (Exception e) {
@@ -146,19 +182,106 @@ public final class Agent implements Steppable {
 		updateAgentPosition(originNode.getCoordinate());
 		planRoute();
 		initialisePath();
+		if (Parameters.eventDriven)
+			scheduleArrival();
 		return;
 	}
 
+	/**
+	 * Event-driven mode: schedules the agent's next step at the time it would
+	 * handle the arrival at the destination if stepped at every tick. The
+	 * movement of {@link #keepWalking()} and {@link #transitionToNextEdge(double)}
+	 * is replayed over the lengths of the route's edges: moveRate is walked at
+	 * every step and, when the end of an edge is passed, the residual move is
+	 * dropped and the agent walks moveRate along the next edge (skipping the edges
+	 * shorter than moveRate) or, at the end of the route, reaches the destination.
+	 * The arrival is handled at the step that follows. The position of the agent
+	 * at the end of each step is recorded, so that the agent can be located as in
+	 * the stepped mode (see {@link #locateAt(double)}).
+	 */
+	private void scheduleArrival() {
+
+		int size = directedEdgesSequence.size();
+		if (stepEdges == null) {
+			stepEdges = new int[16];
+			stepIndices = new double[16];
+		}
+		tripSteps = 0;
+
+		int edgeIndex = 0;
+		EdgeGraph edge = currentEdge;
+		double length = EdgeLines.getLength(edge);
+		int direction = linkDirection;
+		double index = currentIndex;
+		while (true) {
+			index += Parameters.moveRate * direction;
+			if (direction == 1 && index <= length || direction == -1 && index >= 0.0) {
+				recordStep(edgeIndex, index);
+				continue;
+			}
+			// the agent stays at the end of the edge, where the next edge is set up from
+			double edgeEnd = direction == 1 ? length : 0.0;
+			recordStep(edgeIndex, edgeEnd);
+			EdgeLines.extractPoint(edge, edgeEnd, positionAlongEdge);
+			do {
+				edgeIndex++;
+				if (edgeIndex >= size)
+					break;
+				edge = (EdgeGraph) directedEdgesSequence.get(edgeIndex).getEdge();
+				length = EdgeLines.getLength(edge);
+				direction = EdgeLines.isCloserToStart(edge, positionAlongEdge.x, positionAlongEdge.y) ? 1 : -1;
+				index = direction == 1 ? Parameters.moveRate : length - Parameters.moveRate;
+			} while (direction == 1 && index > length || direction == -1 && index < 0.0);
+			if (edgeIndex >= size)
+				break;
+		}
+
+		tripStartTime = state.schedule.getTime();
+		state.schedule.scheduleOnce(tripStartTime + tripSteps + 1, this);
+	}
+
+	/**
+	 * Records the position of the agent at the end of the next step of the trip.
+	 */
+	private void recordStep(int edgeIndex, double index) {
+		if (tripSteps == stepEdges.length) {
+			stepEdges = Arrays.copyOf(stepEdges, tripSteps * 2);
+			stepIndices = Arrays.copyOf(stepIndices, tripSteps * 2);
+		}
+		stepEdges[tripSteps] = edgeIndex;
+		stepIndices[tripSteps] = index;
+		tripSteps++;
+	}
+
+	/**
+	 * Event-driven mode: moves the agent to the position it would occupy at the
+	 * given time if stepped at every tick.
+	 *
+	 * @param time The simulation time.
+	 */
+	public void locateAt(double time) {
+
+		if (stepEdges == null)
+			return;
+		int step = (int) Math.floor(time - tripStartTime);
+		if (step <= 0)
+			return;
+		step = Math.min(step, tripSteps) - 1;
+		EdgeGraph edge = (EdgeGraph) directedEdgesSequence.get(stepEdges[step]).getEdge();
+		EdgeLines.extractPoint(edge, stepIndices[step], positionAlongEdge);
+		updateAgentPosition(positionAlongEdge);
+	}
+
 	/**
 	 * Removes the agent from the simulation.
 	 *
 	 * @param stateSchedule the simulation state.
 	 */
 	private void removeAgent() {
-		state.agentsList.remove(this);
-		killAgent.stop();
-		if (state.agentsList.isEmpty())
-			state.finish();
+		// not repeatedly scheduled in the event-driven mode
+		if (killAgent != null)
+			killAgent.stop();
+		state.removeAgent(this);
 	}
 
 	/**
@@ -180,9 +303,10 @@ public final class Agent implements Steppable {
 		// Sets the Agent up to proceed along an Edge
 		setupEdge(firstEdge);
 		// update the current position for this link
-		updateAgentPosition(indexedSegment.extractPoint(currentIndex));
+		updateAgentPosition(currentIndex);
 		updateData();
 		tripsDone += 1;
+		state.completionTracker.tripStarted();
 	}
 
 	/**
@@ -207,8 +331,10 @@ public final class Agent implements Steppable {
 				System.out.println(((EmpiricalAgentProperties) agentProperties).groupName);
 			System.out.println(" - origin  " + originNode.getID() + " destination " + destinationNode.getID());
 		}
+		long start = System.nanoTime();
 		final RoutePlanner planner = new RoutePlanner(originNode, destinationNode, this);
 		route = planner.definePath();
+		state.metrics.recordRoutePlanning(this, System.nanoTime() - start);
 	}
 
 	/**
@@ -222,18 +348,14 @@ public final class Agent implements Steppable {
 		// check to see if the progress has taken the current index beyond its goal
 		// given the direction of movement. If so, proceed to the next edge
 		if (linkDirection == 1 && currentIndex > endIndex) {
-			final Coordinate currentPos = indexedSegment.extractPoint(endIndex);
-			updateAgentPosition(currentPos);
+			updateAgentPosition(endIndex);
 			transitionToNextEdge(currentIndex - endIndex);
 		} else if (linkDirection == -1 && currentIndex < startIndex) {
-			final Coordinate currentPos = indexedSegment.extractPoint(startIndex);
-			updateAgentPosition(currentPos);
+			updateAgentPosition(startIndex);
 			transitionToNextEdge(startIndex - currentIndex);
-		} else {
+		} else
 			// just update the position!
-			final Coordinate currentPos = indexedSegment.extractPoint(currentIndex);
-			updateAgentPosition(currentPos);
-		}
+			updateAgentPosition(currentIndex);
 	}
 
 	/**
@@ -289,23 +411,18 @@ public final class Agent implements Steppable {
 	void setupEdge(EdgeGraph edge) {
 
 		currentEdge = edge;
-		// transform GeomPlanarGraphEdge in Linestring
-		final LineString line = edge.getLine();
-		// index the Linestring
-		indexedSegment = new LengthIndexedLine(line);
-		startIndex = indexedSegment.getStartIndex();
-		endIndex = indexedSegment.getEndIndex();
+		// the line is indexed by the distance from its start
+		startIndex = 0.0;
+		endIndex = EdgeLines.getLength(edge);
 		linkDirection = 1;
 
 		// check to ensure that Agent is moving in the right direction (direction)
-		final double distanceToStart = line.getStartPoint().distance(agentLocation.geometry);
-		final double distanceToEnd = line.getEndPoint().distance(agentLocation.geometry);
-
-		if (distanceToStart <= distanceToEnd) {
+		final Point location = (Point) agentLocation.geometry;
+		if (EdgeLines.isCloserToStart(edge, location.getX(), location.getY())) {
 			// closer to start
 			currentIndex = startIndex;
 			linkDirection = 1;
-		} else if (distanceToEnd < distanceToStart) {
+		} else {
 			// closer to end
 			currentIndex = endIndex;
 			linkDirection = -1;
@@ -343,4 +460,82 @@ public final class Agent implements Steppable {
 	public AgentProperties getProperties() {
 		return agentProperties;
 	}
+
+	/**
+	 * Gets the metrics registry of the simulation the agent belongs to.
+	 *
+	 * @return The metrics registry.
+	 */
+	public Metrics getMetrics() {
+		return state.metrics;
+	}
+
+	/**
+	 * Gets the random number generator of the simulation the agent belongs to.
+	 *
+	 * @return The random number generator.
+	 */
+	public MersenneTwisterFast getRandom() {
+		return state.random;
+	}
+
+	/**
+	 * Gets the local landmarks known by the agent.
+	 *
+	 * @return A bitset of the indices (in PedSimCity.buildingsMap) of the known
+	 *         local landmarks, or null if not yet set.
+	 */
+	public BitSet getKnownLocalLandmarks() {
+		return knownLocalLandmarks;
+	}
+
+	/**
+	 * Sets the local landmarks known by the agent.
+	 *
+	 * @param knownLocalLandmarks A bitset of the indices (in
+	 *                            PedSimCity.buildingsMap) of the known local
+	 *                            landmarks.
+	 */
+	public void setKnownLocalLandmarks(BitSet knownLocalLandmarks) {
+		this.knownLocalLandmarks = knownLocalLandmarks;
+	}
+
+	/**
+	 * Sets the path planned in advance for the given trip.
+	 *
+	 * @param trip     The index of the trip in the agent's OD list.
+	 * @param sequence The sequence of directed edges composing the path.
+	 */
+	public void setPlannedSequence(int trip, List<DirectedEdge> sequence) {
+		plannedSequences.put(trip, sequence);
+	}
+
+	/**
+	 * Retrieves, and removes, the path planned in advance for the given trip.
+	 *
+	 * @param trip The index of the trip in the agent's OD list.
+	 * @return The sequence of directed edges composing the path, or null if the
+	 *         trip has not been planned in advance.
+	 */
+	public List<DirectedEdge> removePlannedSequence(int trip) {
+		return plannedSequences.remove(trip);
+	}
+
+	/**
+	 * Gets the position of the agent in the simulation's agents list.
+	 *
+	 * @return The position in the agents list.
+	 */
+	public int getListIndex() {
+		return listIndex;
+	}
+
+	/**
+	 * Sets the position of the agent in the simulation's agents list.
+	 *
+	 * @param listIndex The position in the agents list.
+	 */
+	public void setListIndex(int listIndex) {
+		this.listIndex = listIndex;
+	}
 }
@@ -0,0 +1,130 @@
+package pedSim.agents;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.locationtech.jts.geom.Coordinate;
+
+import pedSim.engine.PedSimCity;
+import sim.graph.EdgeGraph;
+
+/**
+ * Length-indexed representation of the street segments' lines, shared by all
+ * the agents for moving along the segments. For each edge (by its index in
+ * {@code PedSimCity.edgesMap}),
+ * the coordinates of the line's vertices and their cumulative distance from
+ * the start of the line are stored in primitive arrays, so that the point at a
+ * given distance along the line is located through a binary search, without
+ * creating any object.
+ */
+public class EdgeLines {
+
+	private static double[][] verticesX = new double[0][];
+	private static double[][] verticesY = new double[0][];
+	// cumulative length of the line at each vertex
+	private static double[][] cumulativeLengths = new double[0][];
+
+	/**
+	 * Builds the arrays from the lines of the given edges.
+	 *
+	 * @param edges The edges of the street network.
+	 */
+	public static void build(List<EdgeGraph> edges) {
+
+		int size = PedSimCity.edgesMap.size();
+		verticesX = new double[size][];
+		verticesY = new double[size][];
+		cumulativeLengths = new double[size][];
+
+		for (EdgeGraph edge : edges) {
+			Coordinate[] coordinates = edge.getLine().getCoordinates();
+			double[] x = new double[coordinates.length];
+			double[] y = new double[coordinates.length];
+			double[] lengths = new double[coordinates.length];
+			for (int i = 0; i < coordinates.length; i++) {
+				x[i] = coordinates[i].x;
+				y[i] = coordinates[i].y;
+				if (i > 0)
+					lengths[i] = lengths[i - 1] + Math.hypot(x[i] - x[i - 1], y[i] - y[i - 1]);
+			}
+			int index = index(edge);
+			verticesX[index] = x;
+			verticesY[index] = y;
+			cumulativeLengths[index] = lengths;
+		}
+	}
+
+	private static int index(EdgeGraph edge) {
+		return PedSimCity.edgesMap.indexOf(edge.getID());
+	}
+
+	/**
+	 * Returns the length of the edge's line.
+	 *
+	 * @param edge The edge.
+	 * @return The length of the line.
+	 */
+	public static double getLength(EdgeGraph edge) {
+		double[] lengths = cumulativeLengths[index(edge)];
+		return lengths[lengths.length - 1];
+	}
+
+	/**
+	 * Checks whether the given position is closer to the start of the edge's line
+	 * than to its end (or equally distant).
+	 *
+	 * @param edge The edge.
+	 * @param x    The x coordinate of the position.
+	 * @param y    The y coordinate of the position.
+	 * @return True if the position is closer to the start; otherwise, false.
+	 */
+	public static boolean isCloserToStart(EdgeGraph edge, double x, double y) {
+		int index = index(edge);
+		double[] lineX = verticesX[index];
+		double[] lineY = verticesY[index];
+		int last = lineX.length - 1;
+		double distanceToStart = Math.hypot(x - lineX[0], y - lineY[0]);
+		double distanceToEnd = Math.hypot(x - lineX[last], y - lineY[last]);
+		return distanceToStart <= distanceToEnd;
+	}
+
+	/**
+	 * Sets the passed coordinate to the point located at the given distance along
+	 * the edge's line. Distances beyond the line's ends are clamped to the ends.
+	 *
+	 * @param edge       The edge.
+	 * @param index      The distance from the start of the line.
+	 * @param coordinate The coordinate to set.
+	 */
+	public static void extractPoint(EdgeGraph edge, double index, Coordinate coordinate) {
+
+		int edgeIndex = index(edge);
+		double[] lineX = verticesX[edgeIndex];
+		double[] lineY = verticesY[edgeIndex];
+		double[] lengths = cumulativeLengths[edgeIndex];
+		int last = lengths.length - 1;
+
+		if (index <= 0.0 || last == 0) {
+			coordinate.x = lineX[0];
+			coordinate.y = lineY[0];
+			return;
+		}
+		if (index >= lengths[last]) {
+			coordinate.x = lineX[last];
+			coordinate.y = lineY[last];
+			return;
+		}
+
+		// the segment [i - 1, i] containing the index
+		int i = Arrays.binarySearch(lengths, index);
+		if (i >= 0) {
+			coordinate.x = lineX[i];
+			coordinate.y = lineY[i];
+			return;
+		}
+		i = -i - 1;
+		double fraction = (index - lengths[i - 1]) / (lengths[i] - lengths[i - 1]);
+		coordinate.x = lineX[i - 1] + fraction * (lineX[i] - lineX[i - 1]);
+		coordinate.y = lineY[i - 1] + fraction * (lineY[i] - lineY[i - 1]);
+	}
+}
@@ -2,18 +2,18 @@ package pedSim.agents;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 
 import org.javatuples.Pair;
 
+import ec.util.MersenneTwisterFast;
+import pedSim.utilities.Distributions;
 import pedSim.utilities.StringEnum.BarrierType;
 import pedSim.utilities.StringEnum.Groups;
 import pedSim.utilities.StringEnum.LandmarkType;
 import pedSim.utilities.StringEnum.RouteChoiceProperty;
-import sim.util.geo.Utilities;
 
 /**
  * `EmpiricalAgentProperties` is a subclass of `AgentProperties` that represents
@@ -27,6 +27,8 @@ public class EmpiricalAgentProperties extends AgentProperties {
 	EmpiricalAgentsGroup group;
 	boolean usingElements = false;
 	boolean elementsActivated = false;
+	// the generator of the agent's simulation
+	final MersenneTwisterFast random;
 
 	List<Double> elementsProbability = new ArrayList<>(Arrays.asList(0.0, 0.0));
 	List<Double> minimisationProbability = new ArrayList<>(Arrays.asList(0.0, 0.0));
@@ -35,13 +37,13 @@ public class EmpiricalAgentProperties extends AgentProperties {
 	List<Double> subGoalsProbability = new ArrayList<>(Arrays.asList(0.0, 0.0));
 	List<Double> distantLandmarksProbability = new ArrayList<>(Arrays.asList(0.0));
 
-	Map<RouteChoiceProperty, Double> elementsMap = new HashMap<>();
-	Map<RouteChoiceProperty, Double> minimisationMap = new HashMap<>();
-	Map<RouteChoiceProperty, Double> localHeuristicsMap = new HashMap<>();
-	Map<RouteChoiceProperty, Double> regionBasedMap = new HashMap<>();
-	Map<RouteChoiceProperty, Double> subGoalsMap = new HashMap<>();
-	Map<RouteChoiceProperty, Double> distantLandmarksMap = new HashMap<>();
-	Map<RouteChoiceProperty, Double> randomElementsMap = new HashMap<>();
+	Map<RouteChoiceProperty, Double> elementsMap = new EnumMap<>(RouteChoiceProperty.class);
+	Map<RouteChoiceProperty, Double> minimisationMap = new EnumMap<>(RouteChoiceProperty.class);
+	Map<RouteChoiceProperty, Double> localHeuristicsMap = new EnumMap<>(RouteChoiceProperty.class);
+	Map<RouteChoiceProperty, Double> regionBasedMap = new EnumMap<>(RouteChoiceProperty.class);
+	Map<RouteChoiceProperty, Double> subGoalsMap = new EnumMap<>(RouteChoiceProperty.class);
+	Map<RouteChoiceProperty, Double> distantLandmarksMap = new EnumMap<>(RouteChoiceProperty.class);
+	Map<RouteChoiceProperty, Double> randomElementsMap = new EnumMap<>(RouteChoiceProperty.class);
 
 	List<RouteChoiceProperty> elements = new ArrayList<>(
 			Arrays.asList(RouteChoiceProperty.USING_ELEMENTS, RouteChoiceProperty.NOT_USING_ELEMENTS));
@@ -75,6 +77,7 @@ public class EmpiricalAgentProperties extends AgentProperties {
 	 */
 	public EmpiricalAgentProperties(Agent agent, EmpiricalAgentsGroup group) {
 		super();
+		this.random = agent.getRandom();
 		this.group = group;
 		this.groupName = this.group.groupName;
 	}
@@ -182,7 +185,7 @@ public class EmpiricalAgentProperties extends AgentProperties {
 	public void updateProbabilities(List<Double> probabilities, List<Pair<Double, Double>> pDistribution) {
 		for (final Double d : probabilities) {
 			final int index = probabilities.indexOf(d);
-			final double p = Utilities.fromDistribution(pDistribution.get(index).getValue0(),
+			final double p = Distributions.fromDistribution(random, pDistribution.get(index).getValue0(),
 					pDistribution.get(index).getValue1(), null);
 			probabilities.set(index, p);
 		}
@@ -223,8 +226,6 @@ public class EmpiricalAgentProperties extends AgentProperties {
 		else
 			setParametersFromGroup();
 
-		final Random random = new Random();
-
 		// using elements or not
 		List<RouteChoiceProperty> keys = new ArrayList<>(elementsMap.keySet());
 		double pRandom = random.nextDouble() * elementsMap.values().stream().mapToDouble(d -> d).sum();
@@ -315,8 +316,8 @@ public class EmpiricalAgentProperties extends AgentProperties {
 		initializeUniformProbabilities(subGoals, subGoalsMap);
 		initializeUniformProbabilities(distantLandmarks, distantLandmarksMap);
 
-		naturalBarriers = 0.00 + Math.random() * (1.00 - 0.00);
-		severingBarriers = 1.00 + Math.random() * (2.00 - 1.00);
+		naturalBarriers = 0.00 + random.nextDouble() * (1.00 - 0.00);
+		severingBarriers = 1.00 + random.nextDouble() * (2.00 - 1.00);
 	}
 
 	/**
@@ -359,7 +360,6 @@ public class EmpiricalAgentProperties extends AgentProperties {
 	 * affecting the agent's route choice behaviour.
 	 */
 	private void activateElements() {
-		final Random random = new Random();
 		List<RouteChoiceProperty> keys = new ArrayList<>(regionBasedMap.keySet());
 
 		double pRandom = random.nextDouble() * regionBasedMap.values().stream().mapToDouble(d -> d).sum();
@@ -13,11 +13,10 @@ import java.awt.event.ItemListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.util.ArrayList;
-import java.util.List;
 import java.util.logging.Logger;
 import java.util.stream.IntStream;
 
-import pedSim.agents.Agent;
+import pedSim.engine.CompletionTracker;
 import pedSim.engine.Environment;
 import pedSim.engine.FlowHandler;
 import pedSim.engine.Import;
@@ -285,10 +284,9 @@ public class PedSimCityApplet extends Frame implements ItemListener {
 			IntStream.range(0, Parameters.jobs).parallel().forEach(job -> {
 				final SimState state = new PedSimCity(System.currentTimeMillis(), job);
 				state.start();
-				List<Agent> agentList = ((PedSimCity) state).getAgentsList();
+				CompletionTracker completionTracker = ((PedSimCity) state).completionTracker;
 				while (state.schedule.step(state)) {
-					remainingTripsCount = agentList.parallelStream()
-							.mapToInt(agent -> agent.OD.size() - agent.tripsDone).sum() * Parameters.jobs;
+					remainingTripsCount = completionTracker.getRemainingTrips() * Parameters.jobs;
 					updateRemainingTripsLabel(true);
 				}
 				flowHandlers.add(((PedSimCity) state).flowHandler);
@@ -299,10 +297,9 @@ public class PedSimCityApplet extends Frame implements ItemListener {
 				jobLabel.setText("Executing Job Nr: " + job);
 				final SimState state = new PedSimCity(System.currentTimeMillis(), job);
 				state.start();
-				List<Agent> agentList = ((PedSimCity) state).getAgentsList();
+				CompletionTracker completionTracker = ((PedSimCity) state).completionTracker;
 				while (state.schedule.step(state)) {
-					remainingTripsCount = agentList.parallelStream()
-							.mapToInt(agent -> agent.OD.size() - agent.tripsDone).sum();
+					remainingTripsCount = completionTracker.getRemainingTrips();
 					updateRemainingTripsLabel(false);
 				}
 				flowHandlers.add(((PedSimCity) state).flowHandler);
@@ -0,0 +1,158 @@
+package pedSim.cognitiveMap;
+
+import java.util.Arrays;
+
+import pedSim.utilities.CompressedBitSet;
+
+/**
+ * Compact storage of the anchors of the nodes of the street network, namely the
+ * global landmarks that orient towards a node when intended as destination. The
+ * anchors of all the nodes are stored in compressed sparse rows: for each node
+ * (by its index in {@code PedSimCity.nodesMap}), the anchors lie between the
+ * node's start and end positions of two primitive arrays, holding the anchors'
+ * indices (in {@code PedSimCity.buildingsMap}), in ascending order, and their
+ * distances from the node. The anchors of each node are also kept as a
+ * compressed bitset, to be intersected with the global landmarks visible from
+ * other nodes.
+ */
+public class Anchors {
+
+	// node index -> start position; the last element is the number of anchors
+	private static int[] offsets = new int[1];
+	// position -> anchor's index in PedSimCity.buildingsMap
+	private static int[] buildings = new int[0];
+	// position -> distance between the anchor and the node
+	private static float[] distances = new float[0];
+	// node index -> anchors' indices, as a set
+	private static CompressedBitSet[] sets = new CompressedBitSet[0];
+	private static final CompressedBitSet NO_ANCHORS = new CompressedBitSet();
+
+	/**
+	 * Compacts the anchors of each node, computed separately, into the shared
+	 * arrays, sorting them by index and replacing any anchors previously stored.
+	 *
+	 * @param nodeAnchors   The indices of the anchors of each node, by node index
+	 *                      (null for nodes without anchors).
+	 * @param nodeDistances The distances of the anchors from each node, in the same
+	 *                      order as the anchors.
+	 */
+	static void build(int[][] nodeAnchors, float[][] nodeDistances) {
+
+		int[] newOffsets = new int[nodeAnchors.length + 1];
+		for (int nodeIndex = 0; nodeIndex < nodeAnchors.length; nodeIndex++) {
+			int count = nodeAnchors[nodeIndex] == null ? 0 : nodeAnchors[nodeIndex].length;
+			newOffsets[nodeIndex + 1] = newOffsets[nodeIndex] + count;
+		}
+
+		int[] newBuildings = new int[newOffsets[nodeAnchors.length]];
+		float[] newDistances = new float[newOffsets[nodeAnchors.length]];
+		CompressedBitSet[] newSets = new CompressedBitSet[nodeAnchors.length];
+		for (int nodeIndex = 0; nodeIndex < nodeAnchors.length; nodeIndex++) {
+			if (nodeAnchors[nodeIndex] == null)
+				continue;
+			int start = newOffsets[nodeIndex];
+			int count = nodeAnchors[nodeIndex].length;
+			CompressedBitSet set = new CompressedBitSet();
+			// insertion sort by index; rows are short
+			for (int i = 0; i < count; i++) {
+				int buildingIndex = nodeAnchors[nodeIndex][i];
+				float distance = nodeDistances[nodeIndex][i];
+				int j = start + i;
+				while (j > start && newBuildings[j - 1] > buildingIndex) {
+					newBuildings[j] = newBuildings[j - 1];
+					newDistances[j] = newDistances[j - 1];
+					j--;
+				}
+				newBuildings[j] = buildingIndex;
+				newDistances[j] = distance;
+				set.add(buildingIndex);
+			}
+			set.trim();
+			newSets[nodeIndex] = set;
+		}
+
+		offsets = newOffsets;
+		buildings = newBuildings;
+		distances = newDistances;
+		sets = newSets;
+	}
+
+	/**
+	 * Returns the position of the first anchor of the given node.
+	 *
+	 * @param nodeIndex The node's index in {@code PedSimCity.nodesMap}.
+	 * @return The start position; equal to the end position if the node has no
+	 *         anchors.
+	 */
+	public static int getStart(int nodeIndex) {
+		return nodeIndex >= 0 && nodeIndex < offsets.length - 1 ? offsets[nodeIndex] : 0;
+	}
+
+	/**
+	 * Returns the position following the last anchor of the given node.
+	 *
+	 * @param nodeIndex The node's index in {@code PedSimCity.nodesMap}.
+	 * @return The end position (exclusive).
+	 */
+	public static int getEnd(int nodeIndex) {
+		return nodeIndex >= 0 && nodeIndex < offsets.length - 1 ? offsets[nodeIndex + 1] : 0;
+	}
+
+	/**
+	 * Returns the anchor stored at the given position.
+	 *
+	 * @param position The position, between a node's start and end positions.
+	 * @return The anchor's index in {@code PedSimCity.buildingsMap}.
+	 */
+	public static int getBuildingIndex(int position) {
+		return buildings[position];
+	}
+
+	/**
+	 * Returns the distance between the anchor stored at the given position and
+	 * its node.
+	 *
+	 * @param position The position, between a node's start and end positions.
+	 * @return The distance.
+	 */
+	public static double getDistance(int position) {
+		return distances[position];
+	}
+
+	/**
+	 * Returns the anchors of the given node, as a set.
+	 *
+	 * @param nodeIndex The node's index in {@code PedSimCity.nodesMap}.
+	 * @return The indices of the anchors in {@code PedSimCity.buildingsMap}; an
+	 *         empty set if the node has no anchors.
+	 */
+	public static CompressedBitSet getSet(int nodeIndex) {
+		if (nodeIndex < 0 || nodeIndex >= sets.length || sets[nodeIndex] == null)
+			return NO_ANCHORS;
+		return sets[nodeIndex];
+	}
+
+	/**
+	 * Returns the position of the given anchor amongst the anchors of a node.
+	 *
+	 * @param nodeIndex     The node's index in {@code PedSimCity.nodesMap}.
+	 * @param buildingIndex The anchor's index in {@code PedSimCity.buildingsMap}.
+	 * @return The position, or a negative value if the building is not an anchor
+	 *         of the node.
+	 */
+	public static int getPosition(int nodeIndex, int buildingIndex) {
+		int start = getStart(nodeIndex);
+		int end = getEnd(nodeIndex);
+		return start == end ? -1 : Arrays.binarySearch(buildings, start, end, buildingIndex);
+	}
+
+	/**
+	 * Returns the number of anchors of the given node.
+	 *
+	 * @param nodeIndex The node's index in {@code PedSimCity.nodesMap}.
+	 * @return The number of anchors.
+	 */
+	public static int count(int nodeIndex) {
+		return getEnd(nodeIndex) - getStart(nodeIndex);
+	}
+}
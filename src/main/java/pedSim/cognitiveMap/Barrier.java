@@ -2,6 +2,8 @@ package pedSim.cognitiveMap;
 
 import java.util.ArrayList;
 
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+
 import sim.graph.EdgeGraph;
 import sim.util.geo.MasonGeometry;
 
@@ -11,6 +13,13 @@ import sim.util.geo.MasonGeometry;
  */
 public class Barrier {
 
+	public static final int PARK = 1;
+	public static final int WATER = 1 << 1;
+	public static final int RAILWAY = 1 << 2;
+	public static final int ROAD = 1 << 3;
+	public static final int SECONDARY_ROAD = 1 << 4;
+	public static final int OTHER = 1 << 5;
+
 	/**
 	 * The unique identifier of the barrier.
 	 */
@@ -30,4 +39,33 @@ public class Barrier {
 	 * The type of the barrier, such as "water," "park," etc.
 	 */
 	public String type;
+
+	/**
+	 * The type of the barrier as a bit of a type mask (e.g. {@link #WATER}).
+	 */
+	public int typeMask;
+
+	/**
+	 * The barrier's geometry, prepared for repeated spatial predicates.
+	 */
+	public PreparedGeometry preparedGeometry;
+
+	/**
+	 * Maps a barrier type string to its bit in the type mask.
+	 *
+	 * @param type The type of the barrier, such as "water," "park," etc.
+	 * @return The corresponding type mask bit.
+	 */
+	public static int typeMask(String type) {
+		if (type == null)
+			return OTHER;
+		return switch (type) {
+		case "park" -> PARK;
+		case "water" -> WATER;
+		case "railway" -> RAILWAY;
+		case "road" -> ROAD;
+		case "secondary_road" -> SECONDARY_ROAD;
+		default -> OTHER;
+		};
+	}
 }
@@ -2,26 +2,62 @@ package pedSim.cognitiveMap;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.javatuples.Pair;
+import org.javatuples.Triplet;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.strtree.STRtree;
 
 import pedSim.agents.Agent;
+import pedSim.engine.Parameters;
 import pedSim.utilities.StringEnum.BarrierType;
-import sim.field.geo.VectorLayer;
 import sim.graph.EdgeGraph;
 import sim.graph.NodeGraph;
 import sim.graph.SubGraph;
 import sim.util.geo.Angles;
 import sim.util.geo.AttributeValue;
-import sim.util.geo.MasonGeometry;
 
 public class BarrierIntegration {
 
+	private static STRtree barriersIndex = new STRtree();
+	private static int barriersCount = 0;
+
+	private static final Map<Triplet<Integer, Integer, BarrierType>, Pair<Geometry, Set<Integer>>> viewFieldCache = new LinkedHashMap<>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(
+				Map.Entry<Triplet<Integer, Integer, BarrierType>, Pair<Geometry, Set<Integer>>> eldest) {
+			return size() > Parameters.viewFieldCacheSize;
+		}
+	};
+
+	/**
+	 * Builds the spatial index of the barriers, used to identify the barriers
+	 * intersecting view fields. The barriers' prepared geometries and type masks
+	 * should have been set.
+	 *
+	 * @param barriers The barriers.
+	 */
+	public static void buildBarriersIndex(Collection<Barrier> barriers) {
+		barriersIndex = new STRtree();
+		for (Barrier barrier : barriers)
+			barriersIndex.insert(barrier.masonGeometry.geometry.getEnvelopeInternal(), barrier);
+		barriersIndex.build();
+		barriersCount = barriers.size();
+		synchronized (viewFieldCache) {
+			viewFieldCache.clear();
+		}
+	}
+
 	/**
 	 * Returns a set of barriers in the direction of the destination node from a
 	 * given location.
@@ -35,32 +71,79 @@ public class BarrierIntegration {
 			Agent agent) {
 
 		Map<Geometry, Set<Integer>> viewFieldIntersectingBarriers = new HashMap<Geometry, Set<Integer>>();
-		Set<Integer> intersectingBarrierIDs = new HashSet<>();
+		if (barriersCount == 0)
+			return viewFieldIntersectingBarriers;
+
 		BarrierType agentBarrierType = agent.getProperties().barrierType;
-		Geometry viewField = Angles.viewField(currentLocation, destinationNode, 70.0);
+		Triplet<Integer, Integer, BarrierType> key = new Triplet<>(currentLocation.getID(), destinationNode.getID(),
+				agentBarrierType);
+		Pair<Geometry, Set<Integer>> viewFieldBarriers;
+		synchronized (viewFieldCache) {
+			viewFieldBarriers = viewFieldCache.get(key);
+		}
+		agent.getMetrics().recordViewFieldLookup(agent, viewFieldBarriers != null);
 
-		VectorLayer barriers = CommunityCognitiveMap.getBarriers();
-		if (barriers.getGeometries().isEmpty())
-			return viewFieldIntersectingBarriers;
+		if (viewFieldBarriers == null) {
+			viewFieldBarriers = computeIntersectingBarriers(currentLocation, destinationNode, agentBarrierType);
+			synchronized (viewFieldCache) {
+				viewFieldCache.put(key, viewFieldBarriers);
+			}
+		}
 
-		List<MasonGeometry> intersectingGeometries = barriers.intersectingFeatures(viewField);
-		if (intersectingGeometries.isEmpty())
+		if (viewFieldBarriers.getValue1() == null)
 			return viewFieldIntersectingBarriers;
-
-		intersectingGeometries.stream().filter(barrierGeometry -> {
-			String barrierType = barrierGeometry.getStringAttribute("type");
-			return agentBarrierType.equals(BarrierType.ALL)
-					|| (agentBarrierType.equals(BarrierType.POSITIVE)
-							&& (barrierType.equals("park") || barrierType.equals("water")))
-					|| (agentBarrierType.equals(BarrierType.NEGATIVE) && (barrierType.equals("railway")
-							|| barrierType.equals("road") || barrierType.equals("secondary_road")))
-					|| (agentBarrierType.equals(BarrierType.SEPARATING) && !barrierType.equals("park"));
-		}).forEach(barrierGeometry -> intersectingBarrierIDs.add(barrierGeometry.getIntegerAttribute("barrierID")));
-
-		viewFieldIntersectingBarriers.put(viewField, intersectingBarrierIDs);
+		// callers may modify the set
+		viewFieldIntersectingBarriers.put(viewFieldBarriers.getValue0(), new HashSet<>(viewFieldBarriers.getValue1()));
 		return viewFieldIntersectingBarriers;
 	}
 
+	/**
+	 * Computes the view field from the current location towards the destination
+	 * and the barriers of the given type intersecting it.
+	 *
+	 * @param currentLocation  The current node.
+	 * @param destinationNode  The destination node.
+	 * @param agentBarrierType The barrier type considered by the agent.
+	 * @return The view field and the barrierIDs intersecting it; the latter is null
+	 *         when no barrier intersects the view field.
+	 */
+	private static Pair<Geometry, Set<Integer>> computeIntersectingBarriers(NodeGraph currentLocation,
+			NodeGraph destinationNode, BarrierType agentBarrierType) {
+
+		Geometry viewField = Angles.viewField(currentLocation, destinationNode, 70.0);
+		int acceptedTypes = acceptedTypes(agentBarrierType);
+		Set<Integer> intersectingBarrierIDs = new HashSet<>();
+		boolean intersecting = false;
+
+		@SuppressWarnings("unchecked")
+		List<Barrier> candidates = barriersIndex.query(viewField.getEnvelopeInternal());
+		for (Barrier barrier : candidates) {
+			if (!barrier.preparedGeometry.intersects(viewField))
+				continue;
+			intersecting = true;
+			if ((barrier.typeMask & acceptedTypes) != 0)
+				intersectingBarrierIDs.add(barrier.barrierID);
+		}
+		return new Pair<>(viewField, intersecting ? intersectingBarrierIDs : null);
+	}
+
+	/**
+	 * Returns the mask of the barrier types considered by agents of the given
+	 * barrier type.
+	 *
+	 * @param agentBarrierType The barrier type considered by the agent.
+	 * @return The mask of the accepted barrier types.
+	 */
+	private static int acceptedTypes(BarrierType agentBarrierType) {
+		return switch (agentBarrierType) {
+		case ALL -> Barrier.PARK | Barrier.WATER | Barrier.RAILWAY | Barrier.ROAD | Barrier.SECONDARY_ROAD
+				| Barrier.OTHER;
+		case POSITIVE -> Barrier.PARK | Barrier.WATER;
+		case NEGATIVE -> Barrier.RAILWAY | Barrier.ROAD | Barrier.SECONDARY_ROAD;
+		case SEPARATING -> Barrier.WATER | Barrier.RAILWAY | Barrier.ROAD | Barrier.SECONDARY_ROAD | Barrier.OTHER;
+		};
+	}
+
 	/**
 	 * Sets the barrier information for an EdgeGraph based on attribute values. This
 	 * method parses attribute strings representing different types of barriers,
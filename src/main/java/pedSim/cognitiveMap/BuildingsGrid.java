@@ -0,0 +1,260 @@
+package pedSim.cognitiveMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+
+import sim.graph.GraphUtils;
+import sim.graph.NodeGraph;
+import sim.util.geo.MasonGeometry;
+
+/**
+ * A uniform grid over the buildings, which counts the buildings, local
+ * landmarks and global landmarks contained in the smallest circle enclosing two
+ * nodes without retrieving the buildings themselves.
+ * <p>
+ * Each building is assigned to the cell containing its centroid and is
+ * summarised by its centroid and the maximum distance between the centroid and
+ * its vertices. Per-row prefix sums of the number of buildings in each layer
+ * allow counting all the cells that lie well inside the circle at once; only
+ * the buildings in the cells along the circle's boundary are checked
+ * individually, and, when their distance from the centre is not conclusive,
+ * tested against the actual enclosing circle. The latter is a polygonal
+ * approximation of the circle; its inradius is assumed to be at least 0.99
+ * times the radius of the circle.
+ */
+public class BuildingsGrid {
+
+	public static final int BUILDINGS = 0;
+	public static final int LOCAL_LANDMARKS = 1;
+	public static final int GLOBAL_LANDMARKS = 2;
+	private static final int LAYERS = 3;
+
+	private static final double INRADIUS_RATIO = 0.99;
+	private static final int BUILDINGS_PER_CELL = 4;
+
+	private static double minX, minY, cellSize;
+	private static int columns = 0, rows = 0;
+
+	// buildings in CSR form: the buildings of cell c are cellBuildings[cellStart[c]
+	// .. cellStart[c + 1] - 1]
+	private static int[] cellStart = new int[1];
+	private static int[] cellBuildings = new int[0];
+	// per row, prefix sums over the columns of the number of elements per layer
+	private static int[][] rowPrefix = new int[LAYERS][0];
+	private static double[] cellMaxRadius = new double[0];
+
+	private static double[] centroidX = new double[0];
+	private static double[] centroidY = new double[0];
+	private static double[] radius = new double[0];
+	private static byte[] layers = new byte[0];
+	private static Geometry[] geometries = new Geometry[0];
+	private static double maxRadius = 0.0;
+
+	/**
+	 * Builds the grid from the buildings and the local and global landmarks
+	 * identified amongst them.
+	 *
+	 * @param buildings       The buildings.
+	 * @param localLandmarks  The buildings identified as local landmarks.
+	 * @param globalLandmarks The buildings identified as global landmarks.
+	 */
+	public static void build(List<MasonGeometry> buildings, List<MasonGeometry> localLandmarks,
+			List<MasonGeometry> globalLandmarks) {
+
+		int size = buildings.size();
+		Set<MasonGeometry> localSet = new HashSet<>(localLandmarks);
+		Set<MasonGeometry> globalSet = new HashSet<>(globalLandmarks);
+
+		centroidX = new double[size];
+		centroidY = new double[size];
+		radius = new double[size];
+		layers = new byte[size];
+		geometries = new Geometry[size];
+		maxRadius = 0.0;
+
+		Envelope envelope = new Envelope();
+		for (int i = 0; i < size; i++) {
+			MasonGeometry building = buildings.get(i);
+			Geometry geometry = building.geometry;
+			Point centroid = geometry.getCentroid();
+			centroidX[i] = centroid.getX();
+			centroidY[i] = centroid.getY();
+			double buildingRadius = 0.0;
+			for (Coordinate coordinate : geometry.getCoordinates())
+				buildingRadius = Math.max(buildingRadius,
+						Math.hypot(coordinate.x - centroidX[i], coordinate.y - centroidY[i]));
+			radius[i] = buildingRadius;
+			maxRadius = Math.max(maxRadius, buildingRadius);
+			geometries[i] = geometry;
+			layers[i] = (byte) ((1 << BUILDINGS) | (localSet.contains(building) ? 1 << LOCAL_LANDMARKS : 0)
+					| (globalSet.contains(building) ? 1 << GLOBAL_LANDMARKS : 0));
+			envelope.expandToInclude(centroidX[i], centroidY[i]);
+		}
+
+		minX = envelope.getMinX();
+		minY = envelope.getMinY();
+		double area = Math.max(envelope.getArea(), 1.0);
+		cellSize = Math.max(Math.sqrt(area * BUILDINGS_PER_CELL / Math.max(size, 1)), 1.0);
+		columns = (int) (envelope.getWidth() / cellSize) + 1;
+		rows = (int) (envelope.getHeight() / cellSize) + 1;
+
+		int[] cellOf = new int[size];
+		cellStart = new int[columns * rows + 1];
+		for (int i = 0; i < size; i++) {
+			cellOf[i] = column(centroidX[i]) + row(centroidY[i]) * columns;
+			cellStart[cellOf[i] + 1]++;
+		}
+		for (int cell = 0; cell < columns * rows; cell++)
+			cellStart[cell + 1] += cellStart[cell];
+
+		cellBuildings = new int[size];
+		cellMaxRadius = new double[columns * rows];
+		int[] fill = Arrays.copyOf(cellStart, columns * rows);
+		for (int i = 0; i < size; i++) {
+			cellBuildings[fill[cellOf[i]]++] = i;
+			cellMaxRadius[cellOf[i]] = Math.max(cellMaxRadius[cellOf[i]], radius[i]);
+		}
+
+		rowPrefix = new int[LAYERS][rows * (columns + 1)];
+		for (int row = 0; row < rows; row++) {
+			for (int column = 0; column < columns; column++) {
+				int cell = column + row * columns;
+				int[] cellCounts = new int[LAYERS];
+				for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++)
+					for (int layer = 0; layer < LAYERS; layer++)
+						if ((layers[cellBuildings[k]] & (1 << layer)) != 0)
+							cellCounts[layer]++;
+				int index = row * (columns + 1) + column;
+				for (int layer = 0; layer < LAYERS; layer++)
+					rowPrefix[layer][index + 1] = rowPrefix[layer][index] + cellCounts[layer];
+			}
+		}
+	}
+
+	/**
+	 * Counts the buildings, local landmarks and global landmarks contained in the
+	 * smallest circle enclosing the two passed nodes.
+	 *
+	 * @param originNode      The first node.
+	 * @param destinationNode The second node.
+	 * @return An array with the counts, indexed by {@link #BUILDINGS},
+	 *         {@link #LOCAL_LANDMARKS} and {@link #GLOBAL_LANDMARKS}.
+	 */
+	public static int[] countBuildings(NodeGraph originNode, NodeGraph destinationNode) {
+
+		int[] counts = new int[LAYERS];
+		if (columns == 0)
+			return counts;
+
+		Coordinate originCoord = originNode.getCoordinate();
+		Coordinate destinationCoord = destinationNode.getCoordinate();
+		double centreX = (originCoord.x + destinationCoord.x) / 2.0;
+		double centreY = (originCoord.y + destinationCoord.y) / 2.0;
+		double circleRadius = originCoord.distance(destinationCoord) / 2.0;
+		double safeRadius = circleRadius * INRADIUS_RATIO;
+		double innerRadius = safeRadius - maxRadius;
+
+		PreparedGeometry[] circle = new PreparedGeometry[1];
+		int firstRow = Math.max(row(centreY - circleRadius), 0);
+		int lastRow = Math.min(row(centreY + circleRadius), rows - 1);
+
+		for (int row = firstRow; row <= lastRow; row++) {
+			double rowMinY = minY + row * cellSize;
+			double rowMaxY = rowMinY + cellSize;
+
+			// columns of the cells intersecting the circle
+			double nearDY = distanceToInterval(centreY, rowMinY, rowMaxY);
+			if (nearDY > circleRadius)
+				continue;
+			double halfWidth = Math.sqrt(circleRadius * circleRadius - nearDY * nearDY);
+			int firstColumn = Math.max(column(centreX - halfWidth), 0);
+			int lastColumn = Math.min(column(centreX + halfWidth), columns - 1);
+
+			// columns of the cells entirely within the inner radius
+			int innerFirst = lastColumn + 1;
+			int innerLast = lastColumn;
+			double farDY = Math.max(Math.abs(centreY - rowMinY), Math.abs(centreY - rowMaxY));
+			if (innerRadius > farDY) {
+				double innerHalfWidth = Math.sqrt(innerRadius * innerRadius - farDY * farDY);
+				innerFirst = Math.max((int) Math.ceil((centreX - innerHalfWidth - minX) / cellSize), firstColumn);
+				innerLast = Math.min((int) Math.floor((centreX + innerHalfWidth - minX) / cellSize) - 1, lastColumn);
+			}
+			if (innerFirst <= innerLast) {
+				int index = row * (columns + 1);
+				for (int layer = 0; layer < LAYERS; layer++)
+					counts[layer] += rowPrefix[layer][index + innerLast + 1] - rowPrefix[layer][index + innerFirst];
+			} else {
+				innerFirst = lastColumn + 1;
+				innerLast = lastColumn;
+			}
+
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				if (column >= innerFirst && column <= innerLast)
+					continue;
+				countCell(column + row * columns, centreX, centreY, circleRadius, safeRadius, originNode,
+						destinationNode, circle, counts);
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Counts the buildings of a boundary cell contained in the circle.
+	 */
+	private static void countCell(int cell, double centreX, double centreY, double circleRadius, double safeRadius,
+			NodeGraph originNode, NodeGraph destinationNode, PreparedGeometry[] circle, int[] counts) {
+
+		if (cellStart[cell] == cellStart[cell + 1])
+			return;
+
+		int column = cell % columns;
+		int row = cell / columns;
+		double cellMinX = minX + column * cellSize;
+		double cellMinY = minY + row * cellSize;
+		double farDX = Math.max(Math.abs(centreX - cellMinX), Math.abs(centreX - cellMinX - cellSize));
+		double farDY = Math.max(Math.abs(centreY - cellMinY), Math.abs(centreY - cellMinY - cellSize));
+		boolean wholeCell = Math.hypot(farDX, farDY) + cellMaxRadius[cell] <= safeRadius;
+
+		for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+			int building = cellBuildings[k];
+			if (!wholeCell) {
+				double distance = Math.hypot(centroidX[building] - centreX, centroidY[building] - centreY);
+				// the centroid of a contained building lies within the circle
+				if (distance > circleRadius)
+					continue;
+				if (distance + radius[building] > safeRadius) {
+					if (circle[0] == null)
+						circle[0] = PreparedGeometryFactory.prepare(GraphUtils.smallestEnclosingGeometryBetweenNodes(
+								new ArrayList<>(Arrays.asList(originNode, destinationNode))));
+					if (!circle[0].contains(geometries[building]))
+						continue;
+				}
+			}
+			for (int layer = 0; layer < LAYERS; layer++)
+				if ((layers[building] & (1 << layer)) != 0)
+					counts[layer]++;
+		}
+	}
+
+	private static double distanceToInterval(double value, double min, double max) {
+		return value < min ? min - value : (value > max ? value - max : 0.0);
+	}
+
+	private static int column(double x) {
+		return (int) Math.floor((x - minX) / cellSize);
+	}
+
+	private static int row(double y) {
+		return (int) Math.floor((y - minY) / cellSize);
+	}
+}
@@ -51,6 +51,8 @@ public class CommunityCognitiveMap {
 		if (!PedSimCity.buildings.getGeometries().isEmpty()) {
 			identifyLandmarks();
 			integrateLandmarks();
+			BuildingsGrid.build(PedSimCity.buildings.getGeometries(), localLandmarks.getGeometries(),
+					globalLandmarks.getGeometries());
 		}
 		identifyRegionElements();
 
@@ -0,0 +1,90 @@
+package pedSim.cognitiveMap;
+
+import java.util.List;
+
+import pedSim.engine.PedSimCity;
+import sim.graph.EdgeGraph;
+
+/**
+ * Compact, typed storage of the barriers along the edges of the street network.
+ * It mirrors the "positiveBarriers", "negativeBarriers" and "barriers" edge
+ * attributes set by {@link BarrierIntegration#setEdgeGraphBarriers(EdgeGraph)}
+ * in primitive arrays indexed by the edges' indices in
+ * {@code PedSimCity.edgesMap}, so that routing does not need
+ * string-keyed attribute lookups and boxed lists in its innermost loops.
+ */
+public class EdgeBarriers {
+
+	private static final byte POSITIVE = 1;
+	private static final byte NEGATIVE = 1 << 1;
+	private static final int[] NO_BARRIERS = new int[0];
+
+	private static byte[] flags = new byte[0];
+	private static int[][] barriers = new int[0][];
+
+	/**
+	 * Builds the per-edge barrier flags and barrierIDs from the attributes of the
+	 * passed edges. It should be called once the edges' barrier attributes have
+	 * been set.
+	 *
+	 * @param edges The edges of the street network.
+	 */
+	public static void build(List<EdgeGraph> edges) {
+
+		flags = new byte[PedSimCity.edgesMap.size()];
+		barriers = new int[PedSimCity.edgesMap.size()][];
+
+		for (EdgeGraph edge : edges) {
+			int edgeIndex = PedSimCity.edgesMap.indexOf(edge.getID());
+			List<Integer> positiveBarriers = edge.attributes.get("positiveBarriers").getArray();
+			List<Integer> negativeBarriers = edge.attributes.get("negativeBarriers").getArray();
+			List<Integer> edgeBarriers = edge.attributes.get("barriers").getArray();
+
+			if (!positiveBarriers.isEmpty())
+				flags[edgeIndex] |= POSITIVE;
+			if (!negativeBarriers.isEmpty())
+				flags[edgeIndex] |= NEGATIVE;
+			barriers[edgeIndex] = edgeBarriers.isEmpty() ? NO_BARRIERS
+					: edgeBarriers.stream().mapToInt(Integer::intValue).toArray();
+		}
+	}
+
+	/**
+	 * Checks whether any positive (natural) barrier runs along the given edge.
+	 *
+	 * @param edge The edge to check.
+	 * @return True if the edge is along a positive barrier; otherwise, false.
+	 */
+	public static boolean hasPositiveBarriers(EdgeGraph edge) {
+		return (flag(edge) & POSITIVE) != 0;
+	}
+
+	/**
+	 * Checks whether any negative (severing) barrier runs along the given edge.
+	 *
+	 * @param edge The edge to check.
+	 * @return True if the edge is along a negative barrier; otherwise, false.
+	 */
+	public static boolean hasNegativeBarriers(EdgeGraph edge) {
+		return (flag(edge) & NEGATIVE) != 0;
+	}
+
+	/**
+	 * Returns the IDs of the barriers (positive and negative) along the given edge.
+	 * The returned array is shared and must not be modified.
+	 *
+	 * @param edge The edge to check.
+	 * @return The barrierIDs along the edge, or an empty array if none.
+	 */
+	public static int[] getBarriers(EdgeGraph edge) {
+		int edgeIndex = PedSimCity.edgesMap.indexOf(edge.getID());
+		if (edgeIndex < 0 || edgeIndex >= barriers.length || barriers[edgeIndex] == null)
+			return NO_BARRIERS;
+		return barriers[edgeIndex];
+	}
+
+	private static byte flag(EdgeGraph edge) {
+		int edgeIndex = PedSimCity.edgesMap.indexOf(edge.getID());
+		return (edgeIndex < 0 || edgeIndex >= flags.length) ? 0 : flags[edgeIndex];
+	}
+}
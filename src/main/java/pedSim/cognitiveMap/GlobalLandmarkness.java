@@ -0,0 +1,197 @@
+package pedSim.cognitiveMap;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import pedSim.agents.Agent;
+import pedSim.engine.Parameters;
+import pedSim.engine.PedSimCity;
+import pedSim.utilities.CompressedBitSet;
+import pedSim.utilities.IntDoubleMap;
+import sim.graph.GraphUtils;
+import sim.graph.NodeGraph;
+
+/**
+ * Provides the global landmarkness of the nodes of the network with respect to
+ * a destination. For each destination, the scores of all the nodes are
+ * computed once, from the destination's anchors and the nodes they are visible
+ * from, and stored in a sparse map (nodeID, score) which only contains the
+ * nodes that see at least one anchor. The maps of the most recently used
+ * destinations are cached, with least-recently-used eviction. The score of a
+ * single node is instead computed directly, intersecting the landmarks visible
+ * from the node with the destination's anchors. Visibility is stored in
+ * compressed bitsets, in both directions, built from the sight lines.
+ */
+public class GlobalLandmarkness {
+
+	private static final Map<Integer, IntDoubleMap> scoresCache = new LinkedHashMap<Integer, IntDoubleMap>(16, 0.75f,
+			true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, IntDoubleMap> eldest) {
+			return size() > Parameters.globalLandmarknessCacheSize;
+		}
+	};
+
+	/**
+	 * The global landmarks visible from each node, by the node's index in
+	 * PedSimCity.nodesMap (null if no landmark is visible from the node), and the
+	 * nodes from which each global landmark is visible, by the landmark's index in
+	 * PedSimCity.buildingsMap (null if not visible from any node).
+	 */
+	private static CompressedBitSet[] visibleLandmarks = new CompressedBitSet[0];
+	private static CompressedBitSet[] visibleFrom = new CompressedBitSet[0];
+	// landmark's index -> global landmarkness
+	private static double[] landmarkness = new double[0];
+
+	/**
+	 * Clears the visibility index and the cached scores. Called before the sight
+	 * lines are (re)integrated.
+	 */
+	static void reset() {
+		visibleLandmarks = new CompressedBitSet[PedSimCity.nodesMap.size()];
+		visibleFrom = new CompressedBitSet[PedSimCity.buildingsMap.size()];
+		landmarkness = new double[PedSimCity.buildingsMap.size()];
+		synchronized (scoresCache) {
+			scoresCache.clear();
+		}
+	}
+
+	/**
+	 * Registers that the given global landmark is visible from the given node.
+	 * Called for each sight line, while integrating them.
+	 *
+	 * @param buildingIndex The landmark's index in PedSimCity.buildingsMap.
+	 * @param nodeIndex     The node's index in PedSimCity.nodesMap.
+	 */
+	static void addVisibility(int buildingIndex, int nodeIndex) {
+		if (visibleLandmarks[nodeIndex] == null)
+			visibleLandmarks[nodeIndex] = new CompressedBitSet();
+		visibleLandmarks[nodeIndex].add(buildingIndex);
+		if (visibleFrom[buildingIndex] == null) {
+			visibleFrom[buildingIndex] = new CompressedBitSet();
+			landmarkness[buildingIndex] = PedSimCity.buildingsMap.getByIndex(buildingIndex).attributes
+					.get("globalLandmarkness").getDouble();
+		}
+		visibleFrom[buildingIndex].add(nodeIndex);
+	}
+
+	/**
+	 * Releases the unused capacity of the visibility index. Called once the sight
+	 * lines have been integrated.
+	 */
+	static void trimVisibility() {
+		for (CompressedBitSet landmarks : visibleLandmarks)
+			if (landmarks != null)
+				landmarks.trim();
+		for (CompressedBitSet nodes : visibleFrom)
+			if (nodes != null)
+				nodes.trim();
+	}
+
+	/**
+	 * Returns the global landmarkness scores of the nodes with respect to the given
+	 * destination. Nodes that are not in the map have a score of 0.0.
+	 *
+	 * @param destinationNode The destination node.
+	 * @param agent           The agent whose route is being planned.
+	 * @return A map of the nodeIDs and their global landmarkness scores.
+	 */
+	public static IntDoubleMap getScores(NodeGraph destinationNode, Agent agent) {
+
+		IntDoubleMap scores;
+		synchronized (scoresCache) {
+			scores = scoresCache.get(destinationNode.getID());
+		}
+		agent.getMetrics().recordScoresLookup(agent, scores != null);
+		if (scores != null)
+			return scores;
+
+		scores = computeScores(destinationNode);
+		synchronized (scoresCache) {
+			scoresCache.put(destinationNode.getID(), scores);
+		}
+		return scores;
+	}
+
+	/**
+	 * Returns the global landmarkness score of the target node with respect to the
+	 * given destination, intersecting the global landmarks visible from the node
+	 * with the destination's anchors.
+	 *
+	 * @param targetNode      The target node being examined.
+	 * @param destinationNode The final destination node.
+	 * @return The global landmarkness score of the target node.
+	 */
+	public static double getScore(NodeGraph targetNode, NodeGraph destinationNode) {
+
+		int targetIndex = PedSimCity.nodesMap.indexOf(targetNode.getID());
+		if (targetIndex < 0 || targetIndex >= visibleLandmarks.length || visibleLandmarks[targetIndex] == null)
+			return 0.0;
+
+		int destinationIndex = PedSimCity.nodesMap.indexOf(destinationNode.getID());
+		CompressedBitSet anchors = Anchors.getSet(destinationIndex);
+		double[] score = { 0.0 };
+		// no anchors: all the global landmarks, weighted 0.90
+		if (anchors.isEmpty()) {
+			visibleLandmarks[targetIndex]
+					.forEach(landmark -> score[0] = Math.max(score[0], landmarkness[landmark] * 0.90));
+			return score[0];
+		}
+
+		double targetDistance = GraphUtils.getCachedNodesDistance(targetNode, destinationNode);
+		visibleLandmarks[targetIndex].andForEach(anchors, anchor -> {
+			double distanceLandmark = Anchors.getDistance(Anchors.getPosition(destinationIndex, anchor));
+			double distanceWeight = Math.min(targetDistance / distanceLandmark, 1.0);
+			score[0] = Math.max(score[0], landmarkness[anchor] * distanceWeight);
+		});
+		return score[0];
+	}
+
+	/**
+	 * Computes the global landmarkness scores of the nodes that see at least one
+	 * of the destination's anchors. The score of a node is the highest global
+	 * landmarkness of the anchors visible from it, each weighted by the ratio
+	 * between the node-destination distance and the anchor-destination distance
+	 * (max 1.0).
+	 *
+	 * @param destinationNode The destination node.
+	 * @return A map of the nodeIDs and their global landmarkness scores.
+	 */
+	private static IntDoubleMap computeScores(NodeGraph destinationNode) {
+
+		int destinationIndex = PedSimCity.nodesMap.indexOf(destinationNode.getID());
+		int start = Anchors.getStart(destinationIndex);
+		int end = Anchors.getEnd(destinationIndex);
+
+		// no anchors: all the global landmarks, weighted 0.90
+		if (start == end) {
+			IntDoubleMap scores = new IntDoubleMap(visibleLandmarks.length);
+			for (int buildingIndex = 0; buildingIndex < visibleFrom.length; buildingIndex++) {
+				if (visibleFrom[buildingIndex] == null)
+					continue;
+				double score = landmarkness[buildingIndex] * 0.90;
+				visibleFrom[buildingIndex]
+						.forEach(nodeIndex -> scores.putMax(PedSimCity.nodesMap.getOriginalID(nodeIndex), score));
+			}
+			return scores;
+		}
+
+		IntDoubleMap scores = new IntDoubleMap((end - start) * 16);
+		for (int position = start; position < end; position++) {
+			int anchorIndex = Anchors.getBuildingIndex(position);
+			if (visibleFrom[anchorIndex] == null)
+				continue;
+			double globalLandmarkness = landmarkness[anchorIndex];
+			double distanceLandmark = Anchors.getDistance(position);
+			visibleFrom[anchorIndex].forEach(nodeIndex -> {
+				NodeGraph node = PedSimCity.nodesMap.getByIndex(nodeIndex);
+				double targetDistance = GraphUtils.getCachedNodesDistance(node, destinationNode);
+				double distanceWeight = Math.min(targetDistance / distanceLandmark, 1.0);
+				scores.putMax(node.getID(), globalLandmarkness * distanceWeight);
+			});
+		}
+		return scores;
+	}
+}
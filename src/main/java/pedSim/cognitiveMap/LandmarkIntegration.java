@@ -1,16 +1,19 @@
 package pedSim.cognitiveMap;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.strtree.STRtree;
 
 import pedSim.engine.PedSimCity;
+import pedSim.utilities.IndexMapping;
 import sim.field.geo.VectorLayer;
 import sim.graph.Building;
 import sim.graph.Graph;
 import sim.graph.NodeGraph;
-import sim.util.geo.AttributeValue;
 import sim.util.geo.MasonGeometry;
 
 /**
@@ -26,7 +29,9 @@ public class LandmarkIntegration {
 	}
 
 	/**
-	 * It assigns to each node in the graph a list of local landmarks.
+	 * It assigns to each node in the graph a list of local landmarks. The nodes
+	 * are processed in parallel, querying a read-only spatial index of the
+	 * landmarks.
 	 *
 	 * @param localLandmarks the layer containing all the buildings possibly
 	 *                       considered as local landmarks;
@@ -35,20 +40,24 @@ public class LandmarkIntegration {
 	 *                       building to be considered a local landmark at the
 	 *                       junction;
 	 */
-	public void setLocalLandmarkness(VectorLayer localLandmarks, Map<Integer, Building> buildingsMap, double radius) {
+	public void setLocalLandmarkness(VectorLayer localLandmarks, IndexMapping<Building> buildingsMap, double radius) {
 
 		List<NodeGraph> nodes = graph.getNodes();
-		nodes.forEach((node) -> {
-			List<MasonGeometry> containedLandmarks = localLandmarks
-					.featuresWithinDistance(node.getMasonGeometry().geometry, radius);
-			for (MasonGeometry masonGeometry : containedLandmarks)
-				node.adjacentBuildings.add(buildingsMap.get((int) masonGeometry.getUserData()));
+		LandmarksIndex index = new LandmarksIndex(localLandmarks, buildingsMap);
+		// each node's list of adjacent buildings is only written by its own task
+		nodes.parallelStream().forEach(node -> {
+			for (int landmark : index.withinDistance(node.getMasonGeometry().geometry, radius))
+				node.adjacentBuildings.add(buildingsMap.getByIndex(index.buildingIndices[landmark]));
 		});
+		LocalLandmarkness.build(nodes);
 	}
 
 	/**
-	 * It assigns to each node in the graph a list of distant landmarks and their
-	 * corresponding global landmarkness values.
+	 * It assigns to each node in the graph its anchors, namely the global
+	 * landmarks within the given radius with the highest global landmarkness, and
+	 * registers the nodes from which each global landmark is visible. The anchors
+	 * of the nodes are selected in parallel, querying a read-only spatial index of
+	 * the landmarks, and stored in {@link Anchors}.
 	 *
 	 * @param globalLandmarks the layer containing all the buildings possibly
 	 *                        considered as global landmarks;
@@ -60,67 +69,159 @@ public class LandmarkIntegration {
 	 * @param nrAnchors       the max number of anchors per node, sorted by global
 	 *                        landmarkness;
 	 */
-	public void setGlobalLandmarkness(VectorLayer globalLandmarks, Map<Integer, Building> buildingsMap,
+	public void setGlobalLandmarkness(VectorLayer globalLandmarks, IndexMapping<Building> buildingsMap,
 			double radiusAnchors, VectorLayer sightLines, int nrAnchors) {
 
 		List<NodeGraph> nodes = graph.getNodes();
-
-		nodes.forEach((node) -> {
-			ArrayList<Building> anchors = new ArrayList<>(); //
-			ArrayList<Double> distances = new ArrayList<>();
-
-			List<MasonGeometry> containedLandmarks = globalLandmarks
-					.featuresWithinDistance(node.getMasonGeometry().geometry, radiusAnchors);
-			List<Double> gScores = new ArrayList<>();
-
-			if (nrAnchors != -1) {
-				for (MasonGeometry masonGeometry : containedLandmarks) {
-					gScores.add(masonGeometry.getDoubleAttribute("gScore_sc"));
-
-				}
-				Collections.sort(gScores);
-				Collections.reverse(gScores);
-			}
-
-			for (Object landmark : containedLandmarks) {
-				MasonGeometry building = (MasonGeometry) landmark;
-				if (nrAnchors != 999999 & building.getDoubleAttribute("gScore_sc") < gScores.get(nrAnchors - 1))
+		// node index -> anchors' indices and distances, filled in parallel
+		int[][] nodeAnchors = new int[PedSimCity.nodesMap.size()][];
+		float[][] nodeDistances = new float[PedSimCity.nodesMap.size()][];
+		LandmarksIndex index = new LandmarksIndex(globalLandmarks, buildingsMap);
+
+		IntStream.range(0, nodes.size()).parallel().forEach(i -> {
+			NodeGraph node = nodes.get(i);
+			int nodeIndex = PedSimCity.nodesMap.indexOf(node.getID());
+			if (nodeIndex < 0)
+				return;
+
+			Geometry nodeGeometry = node.getMasonGeometry().geometry;
+			int[] containedLandmarks = index.withinDistance(nodeGeometry, radiusAnchors);
+			int size = containedLandmarks.length;
+			double[] gScores = new double[size];
+			for (int j = 0; j < size; j++)
+				gScores[j] = index.gScores[containedLandmarks[j]];
+
+			// all the landmarks are anchors when they are no more than nrAnchors, or
+			// when the number is not limited (-1 or 999999)
+			double threshold = Double.NEGATIVE_INFINITY;
+			if (nrAnchors > 0 && nrAnchors != 999999 && nrAnchors < size)
+				threshold = kthLargest(gScores, nrAnchors);
+
+			int[] anchors = new int[size];
+			float[] distances = new float[size];
+			int count = 0;
+			for (int j = 0; j < size; j++) {
+				if (gScores[j] < threshold)
 					continue;
-				int buildingID = (int) building.getUserData();
-				anchors.add(buildingsMap.get(buildingID));
-				distances.add(building.geometry.distance(node.getMasonGeometry().geometry));
+				int landmark = containedLandmarks[j];
+				anchors[count] = index.buildingIndices[landmark];
+				distances[count] = (float) index.geometries[landmark].distance(nodeGeometry);
+				count++;
 			}
-
-			node.attributes.put("anchors", new AttributeValue(anchors));
-			node.attributes.put("distances", new AttributeValue(distances));
+			nodeAnchors[nodeIndex] = Arrays.copyOf(anchors, count);
+			nodeDistances[nodeIndex] = Arrays.copyOf(distances, count);
 		});
+		Anchors.build(nodeAnchors, nodeDistances);
 
+		GlobalLandmarkness.reset();
 		List<MasonGeometry> sightLinesGeometries = sightLines.getGeometries();
 		for (MasonGeometry sightLine : sightLinesGeometries) {
-			Building building = buildingsMap.get(sightLine.getIntegerAttribute("buildingID"));
-			NodeGraph node = PedSimCity.nodesMap.get(sightLine.getIntegerAttribute("nodeID"));
-			if (node != null)
-				node.visibleBuildings3d.add(building);
+			int buildingIndex = buildingsMap.indexOf(sightLine.getIntegerAttribute("buildingID"));
+			int nodeIndex = PedSimCity.nodesMap.indexOf(sightLine.getIntegerAttribute("nodeID"));
+			if (buildingIndex >= 0 && nodeIndex >= 0)
+				GlobalLandmarkness.addVisibility(buildingIndex, nodeIndex);
 		}
+		GlobalLandmarkness.trimVisibility();
 	}
 
 	/**
-	 * Retrieves the attribute value of the "anchors" for the given NodeGraph.
+	 * Returns the k-th largest of the given values, by means of a min-heap holding
+	 * the k largest values seen, without sorting the whole array.
 	 *
-	 * @param node The NodeGraph from which to retrieve the attribute value.
-	 * @return The attribute value associated with "anchors".
+	 * @param values The values.
+	 * @param k      The rank, between 1 and the number of values.
+	 * @return The k-th largest value.
 	 */
-	public static AttributeValue getAnchors(NodeGraph node) {
-		return node.attributes.get("anchors");
+	private static double kthLargest(double[] values, int k) {
+
+		double[] heap = new double[k];
+		for (int i = 0; i < values.length; i++) {
+			if (i < k) {
+				// sift up
+				int child = i;
+				while (child > 0 && heap[(child - 1) / 2] > values[i]) {
+					heap[child] = heap[(child - 1) / 2];
+					child = (child - 1) / 2;
+				}
+				heap[child] = values[i];
+			} else if (values[i] > heap[0]) {
+				// replace the smallest and sift down
+				int parent = 0;
+				while (2 * parent + 1 < k) {
+					int child = 2 * parent + 1;
+					if (child + 1 < k && heap[child + 1] < heap[child])
+						child++;
+					if (heap[child] >= values[i])
+						break;
+					heap[parent] = heap[child];
+					parent = child;
+				}
+				heap[parent] = values[i];
+			}
+		}
+		return heap[0];
 	}
 
 	/**
-	 * Retrieves the attribute value of the "distances" for the given NodeGraph.
-	 *
-	 * @param node The NodeGraph from which to retrieve the attribute value.
-	 * @return The attribute value associated with "distances".
+	 * A read-only spatial index of the landmarks of a layer, which can be queried
+	 * by more threads at once. The STRtree is built before any query, and the
+	 * landmarks' geometries, indices in {@code PedSimCity.buildingsMap} and
+	 * gScores are copied into arrays, by the landmark's position in the index.
+	 * Landmarks missing from the buildings' map are not indexed.
 	 */
-	public static AttributeValue getDistances(NodeGraph node) {
-		return node.attributes.get("distances");
+	private static class LandmarksIndex {
+
+		private final STRtree tree = new STRtree();
+		private final Geometry[] geometries;
+		private final int[] buildingIndices;
+		private final double[] gScores;
+
+		private LandmarksIndex(VectorLayer landmarks, IndexMapping<Building> buildingsMap) {
+
+			List<MasonGeometry> landmarksGeometries = landmarks.getGeometries();
+			int size = landmarksGeometries.size();
+			geometries = new Geometry[size];
+			buildingIndices = new int[size];
+			gScores = new double[size];
+
+			int count = 0;
+			for (MasonGeometry landmark : landmarksGeometries) {
+				int buildingIndex = buildingsMap.indexOf((int) landmark.getUserData());
+				if (buildingIndex < 0)
+					continue;
+				geometries[count] = landmark.geometry;
+				buildingIndices[count] = buildingIndex;
+				gScores[count] = landmark.getDoubleAttribute("gScore_sc");
+				tree.insert(landmark.geometry.getEnvelopeInternal(), count);
+				count++;
+			}
+			// once built, the tree is no longer modified
+			tree.build();
+		}
+
+		/**
+		 * Returns the landmarks within the given distance from a geometry.
+		 *
+		 * @param geometry The geometry.
+		 * @param distance The maximum distance.
+		 * @return The positions of the landmarks in the index, in ascending order.
+		 */
+		private int[] withinDistance(Geometry geometry, double distance) {
+
+			Envelope envelope = new Envelope(geometry.getEnvelopeInternal());
+			envelope.expandBy(distance);
+			List<?> candidates = tree.query(envelope);
+			int[] landmarks = new int[candidates.size()];
+			int count = 0;
+			for (Object candidate : candidates) {
+				int landmark = (Integer) candidate;
+				if (geometries[landmark].isWithinDistance(geometry, distance))
+					landmarks[count++] = landmark;
+			}
+			// in the layer's order, whatever the tree's structure
+			landmarks = Arrays.copyOf(landmarks, count);
+			Arrays.sort(landmarks);
+			return landmarks;
+		}
 	}
 }
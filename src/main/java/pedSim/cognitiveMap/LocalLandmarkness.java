@@ -0,0 +1,92 @@
+package pedSim.cognitiveMap;
+
+import java.util.BitSet;
+import java.util.List;
+
+import pedSim.engine.PedSimCity;
+import sim.graph.Building;
+import sim.graph.NodeGraph;
+
+/**
+ * Compact storage of the local landmarks adjacent to the nodes of the street
+ * network. For each node (by its index in {@code PedSimCity.nodesMap}), the
+ * indices of its adjacent local landmarks (in {@code PedSimCity.buildingsMap})
+ * and their local landmarkness are stored in primitive arrays,
+ * sorted by descending local landmarkness, so that the local landmarkness of a
+ * node as perceived by an agent is the score of the first landmark known by the
+ * agent.
+ */
+public class LocalLandmarkness {
+
+	private static final int[] NO_LANDMARKS = new int[0];
+	private static final double[] NO_SCORES = new double[0];
+
+	private static int[][] landmarks = new int[0][];
+	private static double[][] scores = new double[0][];
+
+	/**
+	 * Builds the per-node arrays of adjacent local landmarks from the nodes'
+	 * adjacent buildings. It should be called once the local landmarks have been
+	 * assigned to the nodes.
+	 *
+	 * @param nodes The nodes of the street network.
+	 */
+	public static void build(List<NodeGraph> nodes) {
+
+		landmarks = new int[PedSimCity.nodesMap.size()][];
+		scores = new double[PedSimCity.nodesMap.size()][];
+
+		for (NodeGraph node : nodes) {
+			int nodeIndex = PedSimCity.nodesMap.indexOf(node.getID());
+			List<Building> adjacentBuildings = node.adjacentBuildings;
+			int size = adjacentBuildings.size();
+			if (size == 0) {
+				landmarks[nodeIndex] = NO_LANDMARKS;
+				scores[nodeIndex] = NO_SCORES;
+				continue;
+			}
+
+			int[] nodeLandmarks = new int[size];
+			double[] nodeScores = new double[size];
+			// insertion sort by descending local landmarkness; lists are short
+			for (int i = 0; i < size; i++) {
+				Building landmark = adjacentBuildings.get(i);
+				double score = landmark.attributes.get("localLandmarkness").getDouble();
+				int j = i;
+				while (j > 0 && nodeScores[j - 1] < score) {
+					nodeScores[j] = nodeScores[j - 1];
+					nodeLandmarks[j] = nodeLandmarks[j - 1];
+					j--;
+				}
+				nodeScores[j] = score;
+				nodeLandmarks[j] = PedSimCity.buildingsMap.indexOf(landmark.buildingID);
+			}
+			landmarks[nodeIndex] = nodeLandmarks;
+			scores[nodeIndex] = nodeScores;
+		}
+	}
+
+	/**
+	 * Returns the highest local landmarkness amongst the landmarks adjacent to the
+	 * given node that are known, namely whose index is set in the passed bitset.
+	 *
+	 * @param node           The node for which to compute the local landmarkness.
+	 * @param knownLandmarks The indices (in {@code PedSimCity.buildingsMap}) of the
+	 *                       local landmarks known by the agent.
+	 * @return The local landmarkness of the node, or 0.0 if none of its landmarks
+	 *         is known.
+	 */
+	public static double getScore(NodeGraph node, BitSet knownLandmarks) {
+
+		int nodeIndex = PedSimCity.nodesMap.indexOf(node.getID());
+		if (nodeIndex < 0 || nodeIndex >= landmarks.length || landmarks[nodeIndex] == null)
+			return 0.0;
+
+		int[] nodeLandmarks = landmarks[nodeIndex];
+		for (int i = 0; i < nodeLandmarks.length; i++) {
+			if (knownLandmarks.get(nodeLandmarks[i]))
+				return scores[nodeIndex][i];
+		}
+		return 0.0;
+	}
+}
@@ -5,6 +5,7 @@ import java.util.List;
 
 import sim.field.geo.VectorLayer;
 import sim.graph.EdgeGraph;
+import sim.graph.NodeGraph;
 import sim.graph.SubGraph;
 import sim.util.geo.MasonGeometry;
 
@@ -24,6 +25,12 @@ public class Region {
 	/** The dual graph associated with this region. */
 	public SubGraph dualGraph;
 
+	/** The mapping between the primal graph and the parent primal graph. */
+	public SubGraphMapping primalGraphMapping;
+
+	/** The mapping between the dual graph and the parent dual graph. */
+	public SubGraphMapping dualGraphMapping;
+
 	/** The vector layer representing the region's network. */
 	public VectorLayer regionNetwork;
 
@@ -33,6 +40,9 @@ public class Region {
 	/** A list of gateways within this region. */
 	public List<Gateway> gateways = new ArrayList<>();
 
+	/** The gateways within this region, as an array. */
+	public Gateway[] gatewaysArray = new Gateway[0];
+
 	/** A list of buildings within this region. */
 	public List<MasonGeometry> buildings = new ArrayList<>();
 
@@ -41,4 +51,16 @@ public class Region {
 
 	/** A list of global landmarks within this region. */
 	public List<MasonGeometry> globalLandmarks = new ArrayList<>();
+
+	/**
+	 * The salient nodes of the region's primal graph at the first percentile step
+	 * where any are found, in the order they are visited during navigation.
+	 */
+	public NodeGraph[] salientNodes = new NodeGraph[0];
+
+	/** The centrality of the salient nodes, in the same order. */
+	public double[] salientNodesCentrality = new double[0];
+
+	/** The initial percentile the salient nodes have been computed for. */
+	public double salientNodesPercentile = Double.NaN;
 }
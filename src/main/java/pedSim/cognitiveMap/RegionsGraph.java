@@ -0,0 +1,84 @@
+package pedSim.cognitiveMap;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The adjacency graph of the regions, as connected by their gateways. It is
+ * built once the gateways have been identified, along with the pairwise
+ * reachability between regions, so that region-based navigation looks up
+ * whether a target region can be reached rather than finding out by trial and
+ * error over the gateways.
+ */
+public class RegionsGraph {
+
+	// regionID -> regions reachable through one of its gateways
+	private static Map<Integer, BitSet> neighbours = new HashMap<>();
+	// regionID -> regions reachable from it
+	private static Map<Integer, BitSet> reachable = new HashMap<>();
+
+	/**
+	 * Builds the regions graph, and the pairwise reachability between regions,
+	 * from the regions' gateways.
+	 *
+	 * @param regionsMap The map of regions (regionID, Region).
+	 */
+	public static void build(Map<Integer, Region> regionsMap) {
+
+		neighbours = new HashMap<>();
+		reachable = new HashMap<>();
+		for (Map.Entry<Integer, Region> entry : regionsMap.entrySet()) {
+			int regionID = entry.getKey();
+			Region region = entry.getValue();
+			neighbours.computeIfAbsent(regionID, id -> new BitSet());
+			for (Gateway gateway : region.gateways)
+				neighbours.get(regionID).set(gateway.regionTo);
+		}
+
+		for (int regionID : regionsMap.keySet())
+			reachable.put(regionID, search(regionID));
+	}
+
+	/**
+	 * Checks whether the target region can be reached from the given region.
+	 *
+	 * @param regionID       The region of departure.
+	 * @param targetRegionID The target region.
+	 * @return True if the target region is reachable; otherwise, false.
+	 */
+	public static boolean isReachable(int regionID, int targetRegionID) {
+		if (regionID == targetRegionID)
+			return true;
+		BitSet regions = reachable.get(regionID);
+		return regions != null && regions.get(targetRegionID);
+	}
+
+	/**
+	 * Breadth-first search over the regions graph.
+	 *
+	 * @param startRegionID The region from which the search starts.
+	 * @return A bitset of the regions found, including the start region.
+	 */
+	private static BitSet search(int startRegionID) {
+
+		BitSet found = new BitSet();
+		Deque<Integer> queue = new ArrayDeque<>();
+		found.set(startRegionID);
+		queue.add(startRegionID);
+		while (!queue.isEmpty()) {
+			BitSet next = neighbours.get(queue.poll());
+			if (next == null)
+				continue;
+			for (int regionID = next.nextSetBit(0); regionID >= 0; regionID = next.nextSetBit(regionID + 1)) {
+				if (found.get(regionID))
+					continue;
+				found.set(regionID);
+				queue.add(regionID);
+			}
+		}
+		return found;
+	}
+}
@@ -0,0 +1,221 @@
+package pedSim.cognitiveMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+
+import pedSim.engine.Parameters;
+import sim.graph.Graph;
+import sim.graph.GraphUtils;
+import sim.graph.NodeGraph;
+
+/**
+ * A centrality-aware spatial index over the nodes of a graph, used to retrieve
+ * the salient nodes (junctions) within the space between two nodes. The index
+ * is built once per graph: the nodes are assigned to the cells of a uniform
+ * grid and, within each cell, sorted by descending centrality; the centrality
+ * thresholds of the percentile steps used during navigation (from
+ * {@link Parameters#salientNodesPercentile}, decreasing by 0.05 till 0.50) are
+ * computed up front.
+ * <p>
+ * A query visits the cells overlapping the space between the two nodes, namely
+ * the smallest enclosing geometry returned by
+ * {@link GraphUtils#smallestEnclosingGeometryBetweenNodes}, and only the nodes
+ * above the lowest threshold. The salient nodes at the higher steps are a
+ * subset of those, so the percentile steps are walked down without scanning the
+ * space again. Salient nodes are those whose centrality is at or above the
+ * nearest-rank percentile of the centrality distribution of the whole graph.
+ */
+public class SalientNodesGrid {
+
+	private static final int NODES_PER_CELL = 8;
+	private static final Map<Graph, SalientNodesGrid> grids = new WeakHashMap<>();
+	private static final GeometryFactory geometryFactory = new GeometryFactory();
+
+	private final double minX, minY, cellSize;
+	private final int columns, rows;
+	// nodes in CSR form, each cell sorted by descending centrality
+	private final int[] cellStart;
+	private final NodeGraph[] nodes;
+	private final double[] centrality;
+	// the percentile steps the thresholds have been computed for
+	private final double percentile;
+	// percentile step -> centrality threshold, in descending order
+	private final double[] thresholds;
+
+	/**
+	 * Returns the index of the given graph, building it the first time it is
+	 * requested, or when the salient nodes percentile has changed since.
+	 *
+	 * @param graph The graph.
+	 * @return The salient nodes index of the graph.
+	 */
+	public static SalientNodesGrid getGrid(Graph graph) {
+		synchronized (grids) {
+			SalientNodesGrid grid = grids.get(graph);
+			if (grid == null || grid.percentile != Parameters.salientNodesPercentile) {
+				grid = new SalientNodesGrid(graph);
+				grids.put(graph, grid);
+			}
+			return grid;
+		}
+	}
+
+	/**
+	 * Returns the percentiles at which salient nodes are looked for, from the
+	 * salient nodes percentile, decreasing by 0.05 till 0.50.
+	 *
+	 * @return The percentiles, in descending order.
+	 */
+	public static List<Double> salientNodesPercentiles() {
+
+		List<Double> percentiles = new ArrayList<>();
+		double percentile = Parameters.salientNodesPercentile;
+		percentiles.add(percentile);
+		while (percentile - 0.05 >= 0.50) {
+			percentile -= 0.05;
+			percentiles.add(percentile);
+		}
+		return percentiles;
+	}
+
+	/**
+	 * Builds the index over the nodes of the given graph.
+	 *
+	 * @param graph The graph.
+	 */
+	private SalientNodesGrid(Graph graph) {
+
+		List<NodeGraph> graphNodes = graph.getNodes();
+		int size = graphNodes.size();
+		Envelope envelope = new Envelope();
+		double[] sortedCentrality = new double[size];
+		for (int i = 0; i < size; i++) {
+			NodeGraph node = graphNodes.get(i);
+			envelope.expandToInclude(node.getCoordinate());
+			sortedCentrality[i] = node.getCentrality();
+		}
+		Arrays.sort(sortedCentrality);
+
+		percentile = Parameters.salientNodesPercentile;
+		List<Double> percentiles = salientNodesPercentiles();
+		thresholds = new double[percentiles.size()];
+		for (int step = 0; step < thresholds.length; step++)
+			thresholds[step] = threshold(sortedCentrality, percentiles.get(step));
+
+		minX = envelope.getMinX();
+		minY = envelope.getMinY();
+		double area = Math.max(envelope.getArea(), 1.0);
+		cellSize = Math.max(Math.sqrt(area * NODES_PER_CELL / Math.max(size, 1)), 1.0);
+		columns = (int) (envelope.getWidth() / cellSize) + 1;
+		rows = (int) (envelope.getHeight() / cellSize) + 1;
+
+		List<NodeGraph> sortedNodes = new ArrayList<>(graphNodes);
+		sortedNodes.sort(Comparator.comparingDouble(NodeGraph::getCentrality).reversed());
+
+		cellStart = new int[columns * rows + 1];
+		int[] cellOf = new int[size];
+		for (int i = 0; i < size; i++) {
+			Coordinate coordinate = sortedNodes.get(i).getCoordinate();
+			cellOf[i] = column(coordinate.x) + row(coordinate.y) * columns;
+			cellStart[cellOf[i] + 1]++;
+		}
+		for (int cell = 0; cell < columns * rows; cell++)
+			cellStart[cell + 1] += cellStart[cell];
+
+		// filling the cells in order of descending centrality keeps each cell sorted
+		nodes = new NodeGraph[size];
+		centrality = new double[size];
+		int[] fill = Arrays.copyOf(cellStart, columns * rows);
+		for (int i = 0; i < size; i++) {
+			int position = fill[cellOf[i]]++;
+			nodes[position] = sortedNodes.get(i);
+			centrality[position] = sortedNodes.get(i).getCentrality();
+		}
+	}
+
+	/**
+	 * Returns the nearest-rank percentile of the given centrality values, namely
+	 * the smallest value such that the passed share of the values is not above
+	 * it.
+	 */
+	private static double threshold(double[] sortedCentrality, double percentile) {
+		if (sortedCentrality.length == 0)
+			return Double.POSITIVE_INFINITY;
+		int index = (int) Math.ceil(percentile * sortedCentrality.length) - 1;
+		return sortedCentrality[Math.min(Math.max(index, 0), sortedCentrality.length - 1)];
+	}
+
+	/**
+	 * Returns the salient nodes within the space between the two passed nodes, at
+	 * the first percentile step, from the highest, where any are found.
+	 *
+	 * @param originNode      The first node.
+	 * @param destinationNode The second node.
+	 * @return A map of the salient nodes and their centrality; empty if no salient
+	 *         node is found down to the 0.50 percentile.
+	 */
+	public Map<NodeGraph, Double> getSalientNodesWithinSpace(NodeGraph originNode, NodeGraph destinationNode) {
+
+		Map<NodeGraph, Double> salientNodes = new HashMap<>();
+		if (nodes.length == 0)
+			return salientNodes;
+
+		PreparedGeometry space = PreparedGeometryFactory.prepare(GraphUtils
+				.smallestEnclosingGeometryBetweenNodes(new ArrayList<>(Arrays.asList(originNode, destinationNode))));
+		Envelope envelope = space.getGeometry().getEnvelopeInternal();
+		int firstRow = Math.max(row(envelope.getMinY()), 0);
+		int lastRow = Math.min(row(envelope.getMaxY()), rows - 1);
+		int firstColumn = Math.max(column(envelope.getMinX()), 0);
+		int lastColumn = Math.min(column(envelope.getMaxX()), columns - 1);
+
+		// one scan at the lowest threshold, tracking the highest step reached by any
+		// node in the space
+		double lowestThreshold = thresholds[thresholds.length - 1];
+		List<NodeGraph> found = new ArrayList<>();
+		int highestStep = thresholds.length;
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				int cell = column + row * columns;
+				for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+					if (centrality[k] < lowestThreshold)
+						break;
+					Coordinate coordinate = nodes[k].getCoordinate();
+					if (!envelope.contains(coordinate)
+							|| !space.contains(geometryFactory.createPoint(coordinate)))
+						continue;
+					int step = 0;
+					while (centrality[k] < thresholds[step])
+						step++;
+					found.add(nodes[k]);
+					highestStep = Math.min(highestStep, step);
+				}
+			}
+		}
+
+		if (highestStep == thresholds.length)
+			return salientNodes;
+		for (NodeGraph node : found)
+			if (node.getCentrality() >= thresholds[highestStep])
+				salientNodes.put(node, node.getCentrality());
+		return salientNodes;
+	}
+
+	private int column(double x) {
+		return (int) Math.floor((x - minX) / cellSize);
+	}
+
+	private int row(double y) {
+		return (int) Math.floor((y - minY) / cellSize);
+	}
+}
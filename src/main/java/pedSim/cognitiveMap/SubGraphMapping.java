@@ -0,0 +1,98 @@
+package pedSim.cognitiveMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.locationtech.jts.planargraph.DirectedEdge;
+
+import sim.graph.EdgeGraph;
+import sim.graph.NodeGraph;
+import sim.graph.SubGraph;
+
+/**
+ * Direct mapping between the nodes and edges of a region's SubGraph and those
+ * of its parent graph, computed once when the region is prepared. Parent nodes
+ * are mapped to their children through a sorted array of parent IDs, and child
+ * edges to their parent edges through an identity map, so that region-level
+ * routing needs neither coordinate lookups nor node-pair edge searches in the
+ * parent graph.
+ */
+public class SubGraphMapping {
+
+	private final int[] parentIDs;
+	private final NodeGraph[] childNodes;
+	private final Map<EdgeGraph, EdgeGraph> parentEdges = new IdentityHashMap<>();
+
+	/**
+	 * Builds the mapping for the given SubGraph.
+	 *
+	 * @param subGraph The SubGraph.
+	 */
+	public SubGraphMapping(SubGraph subGraph) {
+
+		List<NodeGraph> children = subGraph.getNodes();
+		int size = children.size();
+		long[] sortedPairs = new long[size];
+		for (int i = 0; i < size; i++)
+			sortedPairs[i] = ((long) subGraph.getParentNode(children.get(i)).getID() << 32) | i;
+		Arrays.sort(sortedPairs);
+
+		parentIDs = new int[size];
+		childNodes = new NodeGraph[size];
+		for (int i = 0; i < size; i++) {
+			parentIDs[i] = (int) (sortedPairs[i] >> 32);
+			childNodes[i] = children.get((int) sortedPairs[i]);
+		}
+
+		for (EdgeGraph childEdge : subGraph.getEdges())
+			parentEdges.put(childEdge, subGraph.getParentEdge(childEdge));
+	}
+
+	/**
+	 * Returns the child node corresponding to the given parent node.
+	 *
+	 * @param parentNode The node in the parent graph.
+	 * @return The corresponding node in the SubGraph, or null if the node is not
+	 *         part of it.
+	 */
+	public NodeGraph getChildNode(NodeGraph parentNode) {
+		int index = Arrays.binarySearch(parentIDs, parentNode.getID());
+		return index < 0 ? null : childNodes[index];
+	}
+
+	/**
+	 * Returns the child nodes corresponding to the given parent nodes, ignoring
+	 * those that are not part of the SubGraph.
+	 *
+	 * @param parentNodes The nodes in the parent graph.
+	 * @return The corresponding nodes in the SubGraph.
+	 */
+	public List<NodeGraph> getChildNodes(Collection<NodeGraph> parentNodes) {
+		List<NodeGraph> children = new ArrayList<>(parentNodes.size());
+		for (NodeGraph parentNode : parentNodes) {
+			NodeGraph childNode = getChildNode(parentNode);
+			if (childNode != null)
+				children.add(childNode);
+		}
+		return children;
+	}
+
+	/**
+	 * Returns the directed edge of the parent graph corresponding to the given
+	 * directed edge of the SubGraph, with the same orientation.
+	 *
+	 * @param childDirectedEdge The directed edge in the SubGraph.
+	 * @return The corresponding directed edge in the parent graph.
+	 */
+	public DirectedEdge getParentDirectedEdge(DirectedEdge childDirectedEdge) {
+		EdgeGraph parentEdge = parentEdges.get((EdgeGraph) childDirectedEdge.getEdge());
+		DirectedEdge parentDirectedEdge = parentEdge.getDirEdge(0);
+		if (parentDirectedEdge.getFromNode().getCoordinate().equals2D(childDirectedEdge.getFromNode().getCoordinate()))
+			return parentDirectedEdge;
+		return parentEdge.getDirEdge(1);
+	}
+}
@@ -2,7 +2,6 @@ package pedSim.dijkstra;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
@@ -10,12 +9,21 @@ import java.util.Set;
 
 import org.locationtech.jts.planargraph.DirectedEdge;
 
+import ec.util.MersenneTwisterFast;
 import pedSim.agents.Agent;
 import pedSim.agents.AgentProperties;
 import pedSim.cognitiveMap.CommunityCognitiveMap;
+import pedSim.cognitiveMap.EdgeBarriers;
+import pedSim.cognitiveMap.GlobalLandmarkness;
+import pedSim.cognitiveMap.Region;
+import pedSim.cognitiveMap.SubGraphMapping;
+import pedSim.engine.FlightEvents;
+import pedSim.engine.FlightEvents.DijkstraEvent;
 import pedSim.engine.Parameters;
 import pedSim.engine.PedSimCity;
 import pedSim.routeChoice.LandmarkNavigation;
+import pedSim.utilities.Distributions;
+import pedSim.utilities.IntDoubleMap;
 import sim.graph.EdgeGraph;
 import sim.graph.Graph;
 import sim.graph.GraphUtils;
@@ -24,7 +32,6 @@ import sim.graph.SubGraph;
 import sim.routing.NodeWrapper;
 import sim.routing.Route;
 import sim.routing.RoutingUtils;
-import sim.util.geo.Utilities;
 
 /**
  * The Dijkstra class provides functionality for performing Dijkstra's algorithm
@@ -36,16 +43,18 @@ public class Dijkstra {
 	protected Set<NodeGraph> visitedNodes;
 	protected PriorityQueue<NodeGraph> unvisitedNodes;
 
-	Set<NodeGraph> centroidsToAvoid = new HashSet<>();
-	Set<DirectedEdge> directedEdgesToAvoid = new HashSet<>();
-	Set<EdgeGraph> edgesToAvoid = new HashSet<>();
+	// segments (primal) and centroids (dual) to avoid, by reference; null when none
+	EdgesToAvoid edgesToAvoid = null;
+	EdgesToAvoid centroidsToAvoid = null;
 	Map<NodeGraph, NodeWrapper> nodeWrappersMap = new HashMap<>();
 	AgentProperties properties;
 	double tentativeCost;
+	IntDoubleMap globalLandmarknessScores;
 
 	protected Graph agentNetwork;
 	protected Graph agentDualNetwork;
 	SubGraph subGraph = null;
+	SubGraphMapping subGraphMapping = null;
 
 	Agent agent;
 	Route route = new Route();
@@ -63,46 +72,36 @@ public class Dijkstra {
 		this.originNode = originNode;
 		this.destinationNode = destinationNode;
 		this.finalDestinationNode = finalDestinationNode;
+		if (usesGlobalLandmarkness())
+			globalLandmarknessScores = GlobalLandmarkness.getScores(finalDestinationNode, agent);
 	}
 
 	/**
 	 * Initialises the Dijkstra algorithm for route calculation in a primal graph.
 	 *
-	 * @param segmentsToAvoid A set of directed edges to avoid during route
+	 * @param segmentsToAvoid The edges to avoid during route calculation, or null.
 	 */
-	protected void initialisePrimal(Set<DirectedEdge> segmentsToAvoid) {
+	protected void initialisePrimal(EdgesToAvoid segmentsToAvoid) {
 
-		if (!segmentsToAvoid.isEmpty())
-			getEdgesToAvoid(segmentsToAvoid);
+		this.edgesToAvoid = segmentsToAvoid;
 		subGraphInitialisation();
 	}
 
 	/**
 	 * Initialises the Dijkstra algorithm for route calculation in a dual graph.
 	 *
-	 * @param centroidsToAvoid A set of centroids to avoid during route calculation.
+	 * @param centroidsToAvoid The edges whose centroids should be avoided during
+	 *                         route calculation, or null.
 	 * @param previousJunction The previous junction node in the dual graph.
 	 */
-	protected void initialiseDual(Set<NodeGraph> centroidsToAvoid, NodeGraph previousJunction) {
+	protected void initialiseDual(EdgesToAvoid centroidsToAvoid, NodeGraph previousJunction) {
 
-		if (centroidsToAvoid != null)
-			this.centroidsToAvoid = new HashSet<>(centroidsToAvoid);
+		this.centroidsToAvoid = centroidsToAvoid;
 		this.previousJunction = previousJunction;
 		this.agentDualNetwork = CommunityCognitiveMap.getDualNetwork();
 		subGraphInitialisationDual();
 	}
 
-	/**
-	 * Extracts edges to avoid from a set of directed edges.
-	 *
-	 * @param directEdgesToAvoid A set of directed edges to avoid.
-	 */
-	protected void getEdgesToAvoid(Set<DirectedEdge> directEdgesToAvoid) {
-		this.directedEdgesToAvoid = new HashSet<>(directEdgesToAvoid);
-		for (DirectedEdge edge : this.directedEdgesToAvoid)
-			edgesToAvoid.add((EdgeGraph) edge.getEdge());
-	}
-
 	/**
 	 * Initialises the subgraph for primal graph route calculation either between
 	 * the origin and the destination nodes or at the region level. Adjusts the set
@@ -110,33 +109,54 @@ public class Dijkstra {
 	 */
 	protected void subGraphInitialisation() {
 		if (regionCondition()) {
-			subGraph = PedSimCity.regionsMap.get(originNode.getRegionID()).primalGraph;
-			edgesToAvoid = (directedEdgesToAvoid.isEmpty())
-					? new HashSet<>(subGraph.getChildEdges(new ArrayList<>(edgesToAvoid)))
-					: new HashSet<>();
-			originNode = subGraph.findNode(originNode.getCoordinate());
-			destinationNode = subGraph.findNode(destinationNode.getCoordinate());
+			Region region = PedSimCity.regionsMap.get(originNode.getRegionID());
+			subGraph = region.primalGraph;
+			subGraphMapping = region.primalGraphMapping;
+			// no edges to avoid in the subgraph
+			edgesToAvoid = null;
+			originNode = subGraphMapping.getChildNode(originNode);
+			destinationNode = subGraphMapping.getChildNode(destinationNode);
 			agentNetwork = subGraph;
 		}
 	}
 
 	/**
 	 * Initialises the subgraph for dual graph route calculation either between the
-	 * origin and the destination nodes or at the region level. Adjusts the set of
-	 * centroids to avoid if necessary.
+	 * origin and the destination nodes or at the region level. The centroids to
+	 * avoid are checked through their primal edges, which refer in any case to the
+	 * parent primal graph, hence they need no adjustment.
 	 */
 	protected void subGraphInitialisationDual() {
 		if (regionCondition()) {
-			subGraph = PedSimCity.regionsMap.get(originNode.getRegionID()).dualGraph;
-			centroidsToAvoid = (!centroidsToAvoid.isEmpty())
-					? new HashSet<>(subGraph.getChildNodes(new ArrayList<>(centroidsToAvoid)))
-					: new HashSet<>();
-			originNode = subGraph.findNode(originNode.getCoordinate());
-			destinationNode = subGraph.findNode(destinationNode.getCoordinate());
+			Region region = PedSimCity.regionsMap.get(originNode.getRegionID());
+			subGraph = region.dualGraph;
+			subGraphMapping = region.dualGraphMapping;
+			originNode = subGraphMapping.getChildNode(originNode);
+			destinationNode = subGraphMapping.getChildNode(destinationNode);
 			agentDualNetwork = subGraph;
 		}
 	}
 
+	/**
+	 * Checks whether the given edge should be avoided.
+	 *
+	 * @param edge The edge to check.
+	 * @return True if the edge should be avoided; otherwise, false.
+	 */
+	protected boolean isEdgeToAvoid(EdgeGraph edge) {
+		return edgesToAvoid != null && edgesToAvoid.contains(edge);
+	}
+
+	/**
+	 * Checks whether the given centroid (dual node) should be avoided.
+	 *
+	 * @param centroid The centroid to check.
+	 * @return True if the centroid should be avoided; otherwise, false.
+	 */
+	protected boolean isCentroidToAvoid(NodeGraph centroid) {
+		return centroidsToAvoid != null && centroidsToAvoid.contains(centroid.getPrimalEdge());
+	}
+
 	/**
 	 * Computes the cost perception error based on the role of barriers.
 	 *
@@ -147,20 +167,15 @@ public class Dijkstra {
 	 */
 	protected double costPerceptionError(NodeGraph targetNode, EdgeGraph commonEdge, boolean dual) {
 
-		double error = Utilities.fromDistribution(1.0, 0.10, null);
-
-		if (positiveBarrierEffect()) {
-			List<Integer> pBarriers = dual ? targetNode.getPrimalEdge().attributes.get("positiveBarriers").getArray()
-					: commonEdge.attributes.get("positiveBarriers").getArray();
-			if (!pBarriers.isEmpty())
-				error = Utilities.fromDistribution(properties.naturalBarriers, properties.naturalBarriersSD, "left");
-		}
-		if (negativeBarrierEffect()) {
-			List<Integer> nBarriers = dual ? targetNode.getPrimalEdge().attributes.get("negativeBarriers").getArray()
-					: commonEdge.attributes.get("negativeBarriers").getArray();
-			if (!nBarriers.isEmpty())
-				error = Utilities.fromDistribution(properties.severingBarriers, properties.severingBarriersSD, "right");
-		}
+		MersenneTwisterFast random = agent.getRandom();
+		double error = Distributions.fromDistribution(random, 1.0, 0.10, null);
+		EdgeGraph primalEdge = dual ? targetNode.getPrimalEdge() : commonEdge;
+		if (positiveBarrierEffect() && EdgeBarriers.hasPositiveBarriers(primalEdge))
+			error = Distributions.fromDistribution(random, properties.naturalBarriers, properties.naturalBarriersSD,
+					"left");
+		if (negativeBarrierEffect() && EdgeBarriers.hasNegativeBarriers(primalEdge))
+			error = Distributions.fromDistribution(random, properties.severingBarriers, properties.severingBarriersSD,
+					"right");
 
 		return error;
 	}
@@ -176,7 +191,7 @@ public class Dijkstra {
 	protected void computeTentativeCost(NodeGraph currentNode, NodeGraph targetNode, double edgeCost) {
 		tentativeCost = 0.0;
 		if (landmarkCondition(targetNode)) {
-			double globalLandmarkness = LandmarkNavigation.globalLandmarknessNode(targetNode, finalDestinationNode);
+			double globalLandmarkness = globalLandmarknessScores.get(targetNode.getID(), 0.0);
 			double nodeLandmarkness = 1.0 - globalLandmarkness * Parameters.globalLandmarknessWeightDistance;
 			double nodeCost = edgeCost * nodeLandmarkness;
 			tentativeCost = getBest(currentNode) + nodeCost;
@@ -203,8 +218,8 @@ public class Dijkstra {
 			turnCost = MIN_DEFLECTION_ANGLE;
 		}
 		if (landmarkCondition(targetNode)) {
-			double globalLandmarkness = LandmarkNavigation.globalLandmarknessDualNode(currentNode, targetNode,
-					finalDestinationNode);
+			NodeGraph primalTargetNode = LandmarkNavigation.getPrimalTargetNode(currentNode, targetNode);
+			double globalLandmarkness = globalLandmarknessScores.get(primalTargetNode.getID(), 0.0);
 			double nodeLandmarkness = 1.0 - globalLandmarkness * Parameters.globalLandmarknessWeightAngular;
 			double nodeCost = nodeLandmarkness * turnCost;
 			tentativeCost = getBest(currentNode) + nodeCost;
@@ -266,6 +281,16 @@ public class Dijkstra {
 		return nodeWrapper != null ? nodeWrapper.gx : Double.MAX_VALUE;
 	}
 
+	/**
+	 * Determines whether the search weighs the global landmarkness of the nodes
+	 * with respect to the final destination.
+	 *
+	 * @return True if the agent uses distant landmarks; otherwise, false.
+	 */
+	protected boolean usesGlobalLandmarkness() {
+		return !properties.shouldOnlyUseMinimization() && properties.usingDistantLandmarks;
+	}
+
 	/**
 	 * Determines whether there is a positive barrier effect based on the provided
 	 * list of barriers.
@@ -307,9 +332,88 @@ public class Dijkstra {
 	 *         false.
 	 */
 	protected boolean regionCondition() {
+		return regionCondition(originNode, destinationNode, properties);
+	}
+
+	/**
+	 * Checks if the region-based navigation condition is met for the given origin
+	 * and destination nodes, namely whether the route calculation takes place
+	 * within the region's SubGraph.
+	 *
+	 * @param originNode      The origin node.
+	 * @param destinationNode The destination node.
+	 * @param properties      The properties of the agent.
+	 * @return True if the region-based navigation condition is met; otherwise,
+	 *         false.
+	 */
+	static boolean regionCondition(NodeGraph originNode, NodeGraph destinationNode, AgentProperties properties) {
 		return properties.regionBasedNavigation && originNode.getRegionID() == destinationNode.getRegionID();
 	}
 
+	/**
+	 * Reconstructs the path from the origin node to the given destination node
+	 * from the shortest-path tree computed by the last run of the algorithm. Since
+	 * the algorithm settles every reachable node, the tree answers any
+	 * destination within the same graph, as long as the costs do not depend on
+	 * the destination (see {@link ShortestPathTrees}).
+	 *
+	 * @param destinationNode The destination node (in the parent graph).
+	 * @return A list of DirectedEdges representing the path, empty if the
+	 *         destination cannot be reached.
+	 */
+	public List<DirectedEdge> pathTo(NodeGraph destinationNode) {
+		this.destinationNode = subGraphMapping == null ? destinationNode
+				: subGraphMapping.getChildNode(destinationNode);
+		if (this.destinationNode == null)
+			return new ArrayList<>();
+		return reconstructSequence();
+	}
+
+	/**
+	 * Reconstructs the sequence of directed edges composing the path from the
+	 * origin node to the destination node.
+	 *
+	 * @return A list of DirectedEdges representing the path sequence.
+	 */
+	protected List<DirectedEdge> reconstructSequence() {
+		return new ArrayList<>();
+	}
+
+	/**
+	 * Records the metrics of the search just completed and commits its flight
+	 * recorder event.
+	 *
+	 * @param event The flight recorder event of the search, or null.
+	 */
+	protected void searchCompleted(DijkstraEvent event) {
+		agent.getMetrics().recordSearch(agent, settledNodes());
+		if (event != null) {
+			event.kind = getClass().getSimpleName();
+			event.settledNodes = settledNodes();
+			event.subGraph = subGraph != null;
+			FlightEvents.commit(event);
+		}
+	}
+
+	/**
+	 * Returns the number of nodes settled (visited) by the last run of the
+	 * algorithm.
+	 *
+	 * @return The number of settled nodes.
+	 */
+	public int settledNodes() {
+		return visitedNodes == null ? 0 : visitedNodes.size();
+	}
+
+	/**
+	 * Returns the number of nodes reached by the last run of the algorithm.
+	 *
+	 * @return The size of the shortest-path tree.
+	 */
+	public int treeSize() {
+		return nodeWrappersMap.size();
+	}
+
 	/**
 	 * Retrieves the directed edge from the parent graph for the given node.
 	 *
@@ -317,10 +421,8 @@ public class Dijkstra {
 	 * @return the directed edge from the parent graph
 	 */
 	protected DirectedEdge retrieveFromParentGraph(NodeGraph step) {
-		NodeGraph nodeTo = subGraph.getParentNode(step);
-		NodeGraph nodeFrom = subGraph.getParentNode(nodeWrappersMap.get(step).nodeFrom);
 		// retrieving from Primal Network (no SubGraph)
-		return CommunityCognitiveMap.getNetwork().getDirectedEdgeBetween(nodeFrom, nodeTo);
+		return subGraphMapping.getParentDirectedEdge(nodeWrappersMap.get(step).directedEdgeFrom);
 	}
 
 }
@@ -5,11 +5,12 @@ import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.PriorityQueue;
-import java.util.Set;
 
 import org.locationtech.jts.planargraph.DirectedEdge;
 
 import pedSim.agents.Agent;
+import pedSim.engine.FlightEvents;
+import pedSim.engine.FlightEvents.DijkstraEvent;
 import sim.graph.EdgeGraph;
 import sim.graph.NodeGraph;
 import sim.routing.NodeWrapper;
@@ -33,14 +34,14 @@ public class DijkstraAngularChange extends Dijkstra {
 	 * @param destinationNode      The destination node to reach.
 	 * @param finalDestinationNode The final destination node (primal graph) for the
 	 *                             path, if different.
-	 * @param centroidsToAvoid     A set of centroids (nodes representing segments)
-	 *                             to avoid during the path calculation.
+	 * @param centroidsToAvoid     The segments whose centroids are to be avoided
+	 *                             during the path calculation, or null.
 	 * @param agent                The agent for which the route is computed.
 	 * 
 	 * @return An ArrayList of DirectedEdges representing the path.
 	 */
 	public List<DirectedEdge> dijkstraAlgorithm(NodeGraph originNode, NodeGraph destinationNode,
-			NodeGraph finalDestinationNode, Set<NodeGraph> centroidsToAvoid, NodeGraph previousJunction, Agent agent) {
+			NodeGraph finalDestinationNode, EdgesToAvoid centroidsToAvoid, NodeGraph previousJunction, Agent agent) {
 
 		initialise(originNode, destinationNode, finalDestinationNode, agent);
 		initialiseDual(centroidsToAvoid, previousJunction);
@@ -56,11 +57,10 @@ public class DijkstraAngularChange extends Dijkstra {
 		if (previousJunction != null)
 			nodeWrapper.commonPrimalJunction = previousJunction;
 		nodeWrappersMap.put(this.originNode, nodeWrapper);
-		if (this.centroidsToAvoid != null)
-			for (NodeGraph centroid : this.centroidsToAvoid)
-				visitedNodes.add(centroid);
 
+		DijkstraEvent event = FlightEvents.beginDijkstra();
 		runDijkstra();
+		searchCompleted(event);
 		return reconstructSequence();
 	}
 
@@ -69,7 +69,6 @@ public class DijkstraAngularChange extends Dijkstra {
 	 */
 	private void runDijkstra() {
 
-		// add centroids to avoid in the visited set
 		while (unvisitedNodes.size() > 0) {
 			// at the beginning it takes originNode
 			NodeGraph currentNode = unvisitedNodes.peek();
@@ -91,7 +90,7 @@ public class DijkstraAngularChange extends Dijkstra {
 
 		List<NodeGraph> adjacentNodes = currentNode.getAdjacentNodes();
 		for (NodeGraph targetNode : adjacentNodes) {
-			if (visitedNodes.contains(targetNode))
+			if (visitedNodes.contains(targetNode) || isCentroidToAvoid(targetNode))
 				continue;
 
 			// Check if the current and the possible next centroid share in the primal graph
@@ -120,7 +119,8 @@ public class DijkstraAngularChange extends Dijkstra {
 	 *
 	 * @return An ArrayList of DirectedEdges representing the path sequence.
 	 */
-	private List<DirectedEdge> reconstructSequence() {
+	@Override
+	protected List<DirectedEdge> reconstructSequence() {
 		List<DirectedEdge> directedEdgesSequence = new ArrayList<>();
 		NodeGraph step = destinationNode;
 
@@ -7,12 +7,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
-import java.util.Set;
 
 import org.locationtech.jts.planargraph.DirectedEdge;
 
 import pedSim.agents.Agent;
-import pedSim.routeChoice.LandmarkNavigation;
+import pedSim.engine.FlightEvents;
+import pedSim.engine.FlightEvents.DijkstraEvent;
 import sim.graph.EdgeGraph;
 import sim.graph.NodeGraph;
 import sim.routing.NodeWrapper;
@@ -33,17 +33,17 @@ public class DijkstraGlobalLandmarks extends Dijkstra {
 	 * @param destinationNode      The destination node to reach.
 	 * @param finalDestinationNode The final destination node for the path, if
 	 *                             different.
-	 * @param directedEdgesToAvoid A set of directed edges (segments) to avoid
-	 *                             during the path calculation.
+	 * @param edgesToAvoid         The edges (segments) to avoid during the path
+	 *                             calculation, or null.
 	 * @param agent                The agent for which the route is computed.
 	 * 
 	 * @return An ArrayList of DirectedEdges representing the path.
 	 */
 	public List<DirectedEdge> dijkstraAlgorithm(NodeGraph originNode, NodeGraph destinationNode,
-			NodeGraph finalDestinationNode, Set<DirectedEdge> directedEdgesToAvoid, Agent agent) {
+			NodeGraph finalDestinationNode, EdgesToAvoid edgesToAvoid, Agent agent) {
 
 		initialise(originNode, destinationNode, finalDestinationNode, agent);
-		initialisePrimal(directedEdgesToAvoid);
+		initialisePrimal(edgesToAvoid);
 		visitedNodes = new HashSet<>();
 		unvisitedNodes = new PriorityQueue<>(Comparator.comparingDouble(this::getBest));
 		unvisitedNodes.add(this.originNode);
@@ -52,7 +52,9 @@ public class DijkstraGlobalLandmarks extends Dijkstra {
 		NodeWrapper nodeWrapper = new NodeWrapper(this.originNode);
 		nodeWrapper.gx = 0.0;
 		nodeWrappersMap.put(this.originNode, nodeWrapper);
+		DijkstraEvent event = FlightEvents.beginDijkstra();
 		runDijkstra();
+		searchCompleted(event);
 		return reconstructSequence();
 	}
 
@@ -84,10 +86,10 @@ public class DijkstraGlobalLandmarks extends Dijkstra {
 
 			EdgeGraph commonEdge = agentNetwork.getEdgeBetween(currentNode, targetNode);
 			DirectedEdge outEdge = commonEdge.getDirEdge(0);
-			if (edgesToAvoid.contains(outEdge.getEdge()))
+			if (isEdgeToAvoid((EdgeGraph) outEdge.getEdge()))
 				continue;
 
-			double globalLandmarkness = LandmarkNavigation.globalLandmarknessNode(targetNode, finalDestinationNode);
+			double globalLandmarkness = globalLandmarknessScores.get(targetNode.getID(), 0.0);
 
 			// the global landmarkness from the node is divided by the segment's length so
 			// to avoid that the route is not affected
@@ -103,7 +105,8 @@ public class DijkstraGlobalLandmarks extends Dijkstra {
 	 *
 	 * @return An ArrayList of DirectedEdges representing the path sequence.
 	 */
-	List<DirectedEdge> reconstructSequence() {
+	@Override
+	protected List<DirectedEdge> reconstructSequence() {
 		Map<NodeGraph, NodeWrapper> traversedNodesMap = new HashMap<>();
 		List<DirectedEdge> directedEdgesSequence = new ArrayList<>();
 		NodeGraph step = destinationNode;
@@ -126,4 +129,14 @@ public class DijkstraGlobalLandmarks extends Dijkstra {
 		}
 		return directedEdgesSequence;
 	}
+
+	/**
+	 * The search maximises global landmarkness, whatever the agent's properties.
+	 *
+	 * @return Always true.
+	 */
+	@Override
+	protected boolean usesGlobalLandmarkness() {
+		return true;
+	}
 }
@@ -2,15 +2,17 @@
 package pedSim.dijkstra;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.PriorityQueue;
-import java.util.Set;
 
 import org.locationtech.jts.planargraph.DirectedEdge;
 
 import pedSim.agents.Agent;
+import pedSim.engine.FlightEvents;
+import pedSim.engine.FlightEvents.DijkstraEvent;
 import sim.graph.EdgeGraph;
 import sim.graph.NodeGraph;
 import sim.routing.NodeWrapper;
@@ -25,6 +27,10 @@ import sim.routing.NodeWrapper;
  **/
 public class DijkstraRoadDistance extends Dijkstra {
 
+	// nodeIDs of the destinations not yet settled, in multi-destination searches
+	private BitSet targets = null;
+	private int targetsLeft = 0;
+
 	/**
 	 * Performs the Dijkstra's algorithm to find the shortest path from the origin
 	 * node to the destination node.
@@ -37,18 +43,18 @@ public class DijkstraRoadDistance extends Dijkstra {
 	 * @param destinationNode      The destination node to reach.
 	 * @param finalDestinationNode The final destination node (primal graph) for the
 	 *                             path.
-	 * @param directedEdgesToAvoid A set of directed edges (segments) to avoid
-	 *                             during the path calculation.
+	 * @param edgesToAvoid         The edges (segments) to avoid during the path
+	 *                             calculation, or null.
 	 * @param agent                The agent for which the route is computed.
 	 * 
 	 * @return An ArrayList of DirectedEdges representing the shortest path from the
 	 *         origin to the destination.
 	 */
 	public List<DirectedEdge> dijkstraAlgorithm(NodeGraph originNode, NodeGraph destinationNode,
-			NodeGraph finalDestinationNode, Set<DirectedEdge> directedEdgesToAvoid, Agent agent) {
+			NodeGraph finalDestinationNode, EdgesToAvoid edgesToAvoid, Agent agent) {
 
 		initialise(originNode, destinationNode, finalDestinationNode, agent);
-		initialisePrimal(directedEdgesToAvoid);
+		initialisePrimal(edgesToAvoid);
 		visitedNodes = new HashSet<>();
 		unvisitedNodes = new PriorityQueue<>(Comparator.comparingDouble(this::getBest));
 		unvisitedNodes.add(this.originNode);
@@ -57,18 +63,66 @@ public class DijkstraRoadDistance extends Dijkstra {
 		NodeWrapper nodeWrapper = new NodeWrapper(this.originNode);
 		nodeWrapper.gx = 0.0;
 		nodeWrappersMap.put(this.originNode, nodeWrapper);
+		DijkstraEvent event = FlightEvents.beginDijkstra();
 		runDijkstra();
+		searchCompleted(event);
 		return reconstructSequence();
 	}
 
 	/**
-	 * Runs the Dijkstra algorithm to find the shortest path.
+	 * Performs the Dijkstra's algorithm to find the shortest paths from the origin
+	 * node to each of the destination nodes, through a single search that stops
+	 * once all the destinations have been settled. Intended for agents that only
+	 * minimise road distance, whose costs do not depend on the destination.
+	 *
+	 * @param originNode       The starting node for the paths.
+	 * @param destinationNodes The destination nodes to reach.
+	 * @param agent            The agent for which the routes are computed.
+	 * 
+	 * @return A list containing, for each destination node, the list of
+	 *         DirectedEdges representing the shortest path (empty if the
+	 *         destination cannot be reached).
+	 */
+	public List<List<DirectedEdge>> dijkstraAlgorithm(NodeGraph originNode, List<NodeGraph> destinationNodes,
+			Agent agent) {
+
+		initialise(originNode, destinationNodes.get(0), destinationNodes.get(0), agent);
+		initialisePrimal(null);
+		targets = new BitSet();
+		for (NodeGraph destinationNode : destinationNodes)
+			targets.set(destinationNode.getID());
+		targetsLeft = targets.cardinality();
+
+		visitedNodes = new HashSet<>();
+		unvisitedNodes = new PriorityQueue<>(Comparator.comparingDouble(this::getBest));
+		unvisitedNodes.add(this.originNode);
+		NodeWrapper nodeWrapper = new NodeWrapper(this.originNode);
+		nodeWrapper.gx = 0.0;
+		nodeWrappersMap.put(this.originNode, nodeWrapper);
+		DijkstraEvent event = FlightEvents.beginDijkstra();
+		runDijkstra();
+		searchCompleted(event);
+
+		List<List<DirectedEdge>> sequences = new ArrayList<>(destinationNodes.size());
+		for (NodeGraph destinationNode : destinationNodes)
+			sequences.add(pathTo(destinationNode));
+		return sequences;
+	}
+
+	/**
+	 * Runs the Dijkstra algorithm to find the shortest path. When destinations are
+	 * set, the search stops as soon as all of them have been settled.
 	 */
 	private void runDijkstra() {
 		while (!unvisitedNodes.isEmpty()) {
 			NodeGraph currentNode = unvisitedNodes.peek();
 			visitedNodes.add(currentNode);
 			unvisitedNodes.remove(currentNode);
+			if (targets != null && targets.get(currentNode.getID())) {
+				targets.clear(currentNode.getID());
+				if (--targetsLeft == 0)
+					return;
+			}
 			findMinDistances(currentNode);
 		}
 	}
@@ -87,7 +141,7 @@ public class DijkstraRoadDistance extends Dijkstra {
 				continue;
 
 			EdgeGraph commonEdge = agentNetwork.getEdgeBetween(currentNode, targetNode);
-			if (edgesToAvoid.contains(commonEdge))
+			if (isEdgeToAvoid(commonEdge))
 				continue;
 
 			DirectedEdge outEdge = agentNetwork.getDirectedEdgeBetween(currentNode, targetNode);
@@ -104,7 +158,8 @@ public class DijkstraRoadDistance extends Dijkstra {
 	 *
 	 * @return An ArrayList of DirectedEdges representing the path sequence.
 	 */
-	private List<DirectedEdge> reconstructSequence() {
+	@Override
+	protected List<DirectedEdge> reconstructSequence() {
 		List<DirectedEdge> directedEdgesSequence = new ArrayList<>();
 		NodeGraph step = destinationNode;
 
@@ -0,0 +1,90 @@
+package pedSim.dijkstra;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.locationtech.jts.planargraph.DirectedEdge;
+
+import pedSim.engine.PedSimCity;
+import sim.graph.EdgeGraph;
+
+/**
+ * The set of street segments that a route calculation should avoid, stored as
+ * an array of stamps indexed by the edges' indices in
+ * {@code PedSimCity.edgesMap}. An edge is in the set when its stamp
+ * equals the current epoch, so that membership checks are a single array
+ * access and clearing the set only requires increasing the epoch.
+ *
+ * The same set serves both primal and dual route calculations: in the dual
+ * graph, a centroid is avoided when its primal edge is.
+ */
+public class EdgesToAvoid {
+
+	// allocated at the first addition
+	private int[] stamps = new int[0];
+	private int epoch = 1;
+	// increased at every change of the set
+	private int version = 0;
+
+	/**
+	 * Adds the given edge to the set.
+	 *
+	 * @param edge The edge to avoid.
+	 */
+	public void add(EdgeGraph edge) {
+		int edgeIndex = PedSimCity.edgesMap.indexOf(edge.getID());
+		if (edgeIndex < 0)
+			return;
+		if (stamps.length == 0)
+			stamps = new int[PedSimCity.edgesMap.size()];
+		if (stamps[edgeIndex] != epoch) {
+			stamps[edgeIndex] = epoch;
+			version++;
+		}
+	}
+
+	/**
+	 * Adds the edges of the directed edges in the given sequence, starting from
+	 * the passed index.
+	 *
+	 * @param directedEdges The sequence of directed edges.
+	 * @param fromIndex     The index of the first directed edge to add.
+	 */
+	public void addAll(List<DirectedEdge> directedEdges, int fromIndex) {
+		for (int i = fromIndex; i < directedEdges.size(); i++)
+			add((EdgeGraph) directedEdges.get(i).getEdge());
+	}
+
+	/**
+	 * Checks whether the given edge is in the set.
+	 *
+	 * @param edge The edge to check.
+	 * @return True if the edge should be avoided; otherwise, false.
+	 */
+	public boolean contains(EdgeGraph edge) {
+		int edgeIndex = PedSimCity.edgesMap.indexOf(edge.getID());
+		return edgeIndex >= 0 && edgeIndex < stamps.length && stamps[edgeIndex] == epoch;
+	}
+
+	/**
+	 * Removes all the edges from the set.
+	 */
+	public void clear() {
+		epoch++;
+		version++;
+		if (epoch == Integer.MAX_VALUE) {
+			Arrays.fill(stamps, 0);
+			epoch = 1;
+		}
+	}
+
+	/**
+	 * Returns the version of the set, which changes whenever edges are added or
+	 * the set is cleared.
+	 *
+	 * @return The version of the set.
+	 */
+	public int getVersion() {
+		return version;
+	}
+}
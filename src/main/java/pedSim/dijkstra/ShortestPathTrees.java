@@ -0,0 +1,173 @@
+package pedSim.dijkstra;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.javatuples.Sextet;
+import org.locationtech.jts.planargraph.DirectedEdge;
+
+import pedSim.agents.Agent;
+import pedSim.engine.Parameters;
+import sim.graph.NodeGraph;
+
+/**
+ * Stores the shortest-path trees computed while planning a route, so that
+ * searches from the same origin are answered by reconstructing the path from
+ * the stored tree rather than by running the algorithm again. This is the case,
+ * for instance, when trying the dual nodes of a destination one after the
+ * other, or when consecutive legs of a sequence start from the same node.
+ * <p>
+ * A tree answers a search when it was computed by the same algorithm, from the
+ * same origin (and previous junction), towards the same final destination,
+ * within the same graph (the whole network or a region's SubGraph), and while
+ * avoiding the same edges. Since the agent's perception of costs is stochastic,
+ * trees are only shared within the route planning of a single agent. The trees
+ * are evicted, least recently used first, when the total number of nodes they
+ * contain exceeds {@link Parameters#shortestPathTreesNodes}.
+ * <p>
+ * Reusing trees changes the random draws behind the agents' perceived costs,
+ * hence the routes; it is opt-in, through
+ * {@link Parameters#reuseShortestPathTrees}. Otherwise, every search runs the
+ * algorithm and nothing is stored.
+ */
+public class ShortestPathTrees {
+
+	private final Map<Sextet<Class<?>, NodeGraph, NodeGraph, NodeGraph, Integer, Integer>, Dijkstra> trees = new LinkedHashMap<>(
+			16, 0.75f, true);
+	private int storedNodes = 0;
+
+	/**
+	 * Returns the least road distance path between the passed nodes.
+	 *
+	 * @param originNode           The starting node for the path.
+	 * @param destinationNode      The destination node to reach.
+	 * @param finalDestinationNode The final destination node for the path.
+	 * @param edgesToAvoid         The edges to avoid, or null.
+	 * @param agent                The agent for which the route is computed.
+	 * @return A list of DirectedEdges representing the path.
+	 */
+	public List<DirectedEdge> roadDistance(NodeGraph originNode, NodeGraph destinationNode,
+			NodeGraph finalDestinationNode, EdgesToAvoid edgesToAvoid, Agent agent) {
+
+		if (!Parameters.reuseShortestPathTrees)
+			return new DijkstraRoadDistance().dijkstraAlgorithm(originNode, destinationNode, finalDestinationNode,
+					edgesToAvoid, agent);
+
+		Sextet<Class<?>, NodeGraph, NodeGraph, NodeGraph, Integer, Integer> key = getKey(DijkstraRoadDistance.class,
+				originNode, destinationNode, finalDestinationNode, null, edgesToAvoid, agent);
+		Dijkstra tree = trees.get(key);
+		agent.getMetrics().recordTreesLookup(agent, tree != null);
+		if (tree != null)
+			return tree.pathTo(destinationNode);
+
+		DijkstraRoadDistance pathfinder = new DijkstraRoadDistance();
+		List<DirectedEdge> sequence = pathfinder.dijkstraAlgorithm(originNode, destinationNode, finalDestinationNode,
+				edgesToAvoid, agent);
+		store(key, pathfinder);
+		return sequence;
+	}
+
+	/**
+	 * Returns the least cumulative angular change path between the passed dual
+	 * nodes.
+	 *
+	 * @param originNode           The starting (dual) node for the path.
+	 * @param destinationNode      The (dual) destination node to reach.
+	 * @param finalDestinationNode The final destination node (primal graph) for the
+	 *                             path.
+	 * @param centroidsToAvoid     The segments whose centroids are to be avoided,
+	 *                             or null.
+	 * @param previousJunction     The previous junction (primal graph).
+	 * @param agent                The agent for which the route is computed.
+	 * @return A list of DirectedEdges representing the path.
+	 */
+	public List<DirectedEdge> angularChange(NodeGraph originNode, NodeGraph destinationNode,
+			NodeGraph finalDestinationNode, EdgesToAvoid centroidsToAvoid, NodeGraph previousJunction, Agent agent) {
+
+		if (!Parameters.reuseShortestPathTrees)
+			return new DijkstraAngularChange().dijkstraAlgorithm(originNode, destinationNode, finalDestinationNode,
+					centroidsToAvoid, previousJunction, agent);
+
+		Sextet<Class<?>, NodeGraph, NodeGraph, NodeGraph, Integer, Integer> key = getKey(DijkstraAngularChange.class,
+				originNode, destinationNode, finalDestinationNode, previousJunction, centroidsToAvoid, agent);
+		Dijkstra tree = trees.get(key);
+		agent.getMetrics().recordTreesLookup(agent, tree != null);
+		if (tree != null)
+			return tree.pathTo(destinationNode);
+
+		DijkstraAngularChange pathfinder = new DijkstraAngularChange();
+		List<DirectedEdge> sequence = pathfinder.dijkstraAlgorithm(originNode, destinationNode, finalDestinationNode,
+				centroidsToAvoid, previousJunction, agent);
+		store(key, pathfinder);
+		return sequence;
+	}
+
+	/**
+	 * Returns the path maximising global landmarkness between the passed nodes.
+	 *
+	 * @param originNode           The starting node for the path.
+	 * @param destinationNode      The destination node to reach.
+	 * @param finalDestinationNode The final destination node for the path.
+	 * @param edgesToAvoid         The edges to avoid, or null.
+	 * @param agent                The agent for which the route is computed.
+	 * @return A list of DirectedEdges representing the path.
+	 */
+	public List<DirectedEdge> globalLandmarks(NodeGraph originNode, NodeGraph destinationNode,
+			NodeGraph finalDestinationNode, EdgesToAvoid edgesToAvoid, Agent agent) {
+
+		if (!Parameters.reuseShortestPathTrees)
+			return new DijkstraGlobalLandmarks().dijkstraAlgorithm(originNode, destinationNode, finalDestinationNode,
+					edgesToAvoid, agent);
+
+		Sextet<Class<?>, NodeGraph, NodeGraph, NodeGraph, Integer, Integer> key = getKey(DijkstraGlobalLandmarks.class,
+				originNode, destinationNode, finalDestinationNode, null, edgesToAvoid, agent);
+		Dijkstra tree = trees.get(key);
+		agent.getMetrics().recordTreesLookup(agent, tree != null);
+		if (tree != null)
+			return tree.pathTo(destinationNode);
+
+		DijkstraGlobalLandmarks pathfinder = new DijkstraGlobalLandmarks();
+		List<DirectedEdge> sequence = pathfinder.dijkstraAlgorithm(originNode, destinationNode, finalDestinationNode,
+				edgesToAvoid, agent);
+		store(key, pathfinder);
+		return sequence;
+	}
+
+	/**
+	 * Builds the key identifying the tree that answers the given search.
+	 */
+	private Sextet<Class<?>, NodeGraph, NodeGraph, NodeGraph, Integer, Integer> getKey(Class<?> algorithm,
+			NodeGraph originNode, NodeGraph destinationNode, NodeGraph finalDestinationNode,
+			NodeGraph previousJunction, EdgesToAvoid edgesToAvoid, Agent agent) {
+
+		int regionID = Dijkstra.regionCondition(originNode, destinationNode, agent.getProperties())
+				? originNode.getRegionID()
+				: -1;
+		int avoidVersion = edgesToAvoid == null ? -1 : edgesToAvoid.getVersion();
+		return new Sextet<>(algorithm, originNode, previousJunction, finalDestinationNode, regionID, avoidVersion);
+	}
+
+	/**
+	 * Stores the tree, evicting the least recently used trees when the nodes
+	 * budget is exceeded.
+	 */
+	private void store(Sextet<Class<?>, NodeGraph, NodeGraph, NodeGraph, Integer, Integer> key, Dijkstra tree) {
+
+		int size = tree.treeSize();
+		if (size > Parameters.shortestPathTreesNodes)
+			return;
+
+		trees.put(key, tree);
+		storedNodes += size;
+		Iterator<Dijkstra> iterator = trees.values().iterator();
+		while (storedNodes > Parameters.shortestPathTreesNodes && iterator.hasNext()) {
+			Dijkstra eldest = iterator.next();
+			if (eldest == tree)
+				continue;
+			storedNodes -= eldest.treeSize();
+			iterator.remove();
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package pedSim.engine;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks the progress of a job: the number of agents still in the simulation
+ * and the number of trips not yet started. The counters are updated by the
+ * agents as they start trips and retire, and can be read at any time (e.g. by
+ * the applet, from another thread) without scanning the agents. The completion
+ * listeners are notified once the last agent retires.
+ */
+public class CompletionTracker {
+
+	private final AtomicInteger remainingAgents = new AtomicInteger();
+	private final AtomicInteger remainingTrips = new AtomicInteger();
+	private final List<Runnable> completionListeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Registers an agent and its trips.
+	 *
+	 * @param trips The number of trips the agent has to walk.
+	 */
+	public void registerAgent(int trips) {
+		remainingAgents.incrementAndGet();
+		remainingTrips.addAndGet(trips);
+	}
+
+	/**
+	 * Records that an agent has started one of its trips.
+	 */
+	public void tripStarted() {
+		remainingTrips.decrementAndGet();
+	}
+
+	/**
+	 * Records that an agent has completed all its trips and left the simulation,
+	 * notifying the completion listeners if it was the last one.
+	 */
+	public void agentRetired() {
+		if (remainingAgents.decrementAndGet() == 0)
+			for (Runnable listener : completionListeners)
+				listener.run();
+	}
+
+	/**
+	 * Adds a listener to be notified when all the agents have retired.
+	 *
+	 * @param listener The listener.
+	 */
+	public void addCompletionListener(Runnable listener) {
+		completionListeners.add(listener);
+	}
+
+	/**
+	 * Returns the number of agents still in the simulation.
+	 *
+	 * @return The number of remaining agents.
+	 */
+	public int getRemainingAgents() {
+		return remainingAgents.get();
+	}
+
+	/**
+	 * Returns the number of trips not yet started.
+	 *
+	 * @return The number of remaining trips.
+	 */
+	public int getRemainingTrips() {
+		return remainingTrips.get();
+	}
+}
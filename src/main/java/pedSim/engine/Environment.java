@@ -1,19 +1,31 @@
 package pedSim.engine;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.javatuples.Pair;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
 import org.locationtech.jts.planargraph.DirectedEdge;
 import org.locationtech.jts.planargraph.DirectedEdgeStar;
 
+import pedSim.agents.EdgeLines;
 import pedSim.cognitiveMap.Barrier;
 import pedSim.cognitiveMap.BarrierIntegration;
 import pedSim.cognitiveMap.CommunityCognitiveMap;
+import pedSim.cognitiveMap.EdgeBarriers;
 import pedSim.cognitiveMap.Gateway;
 import pedSim.cognitiveMap.Region;
+import pedSim.cognitiveMap.RegionsGraph;
+import pedSim.cognitiveMap.SalientNodesGrid;
+import pedSim.cognitiveMap.SubGraphMapping;
+import pedSim.engine.FlightEvents.PhaseEvent;
+import pedSim.utilities.IndexMapping;
 import sim.field.geo.VectorLayer;
 import sim.graph.Building;
 import sim.graph.EdgeGraph;
@@ -35,20 +47,37 @@ public class Environment {
 	 */
 	public static void prepare() {
 
-		prepareGraph();
+		runPhase("prepare graph", Environment::prepareGraph);
 		if (!PedSimCity.buildings.getGeometries().isEmpty())
-			prepareBuildings();
+			runPhase("prepare buildings", Environment::prepareBuildings);
 		if (!PedSimCity.barriers.getGeometries().isEmpty())
-			identifyGateways();
-		prepareDualGraph();
+			runPhase("identify gateways", Environment::identifyGateways);
+		runPhase("prepare dual graph", Environment::prepareDualGraph);
 
 		if (!PedSimCity.barriers.getGeometries().isEmpty()) {
-			integrateBarriers();
-			prepareRegions();
+			runPhase("integrate barriers", Environment::integrateBarriers);
+			runPhase("prepare regions", Environment::prepareRegions);
 		}
 
-		CommunityCognitiveMap cognitiveMap = new CommunityCognitiveMap();
-		cognitiveMap.setCommunityCognitiveMap();
+		runPhase("community cognitive map", () -> {
+			CommunityCognitiveMap cognitiveMap = new CommunityCognitiveMap();
+			cognitiveMap.setCommunityCognitiveMap();
+		});
+	}
+
+	/**
+	 * Runs a step of the preparation, recording its duration in the metrics and
+	 * as a flight recorder event.
+	 *
+	 * @param phase The name of the step.
+	 * @param step  The step.
+	 */
+	private static void runPhase(String phase, Runnable step) {
+		PhaseEvent event = FlightEvents.beginPhase(phase);
+		long start = System.nanoTime();
+		step.run();
+		Metrics.recordPhase(phase, start);
+		FlightEvents.commit(event);
 	}
 
 	/**
@@ -57,6 +86,7 @@ public class Environment {
 	static private void prepareGraph() {
 
 		List<MasonGeometry> geometries = PedSimCity.junctions.getGeometries();
+		List<NodeGraph> nodes = new ArrayList<>(geometries.size());
 
 		for (final MasonGeometry nodeGeometry : geometries) {
 			// street junctions and betweenness centrality
@@ -64,8 +94,9 @@ public class Environment {
 			node.setID(nodeGeometry.getIntegerAttribute("nodeID"));
 			node.setMasonGeometry(nodeGeometry);
 			setCentralityNode(nodeGeometry, node);
-			PedSimCity.nodesMap.put(node.getID(), node);
+			nodes.add(node);
 		}
+		PedSimCity.nodesMap = new IndexMapping<>(nodes, NodeGraph::getID);
 		// generate the centrality map of the graph
 		PedSimCity.network.generateCentralityMap();
 		createEdgesMap();
@@ -88,11 +119,10 @@ public class Environment {
 	static private void createEdgesMap() {
 
 		List<EdgeGraph> edges = PedSimCity.network.getEdges();
-		for (EdgeGraph edge : edges) {
-			int edgeID = edge.attributes.get("edgeID").getInteger();
-			edge.setID(edgeID);
-			PedSimCity.edgesMap.put(edgeID, edge);
-		}
+		for (EdgeGraph edge : edges)
+			edge.setID(edge.attributes.get("edgeID").getInteger());
+		PedSimCity.edgesMap = new IndexMapping<>(edges, EdgeGraph::getID);
+		EdgeLines.build(edges);
 	}
 
 	/**
@@ -101,6 +131,7 @@ public class Environment {
 	static private void prepareBuildings() {
 
 		List<MasonGeometry> geometries = PedSimCity.buildings.getGeometries();
+		List<Building> buildings = new ArrayList<>(geometries.size());
 		for (final MasonGeometry buildingGeometry : geometries) {
 			final Building building = new Building();
 			building.buildingID = buildingGeometry.getIntegerAttribute("buildingID");
@@ -124,8 +155,9 @@ public class Environment {
 				}
 			}
 			building.node = closest != null ? PedSimCity.network.findNode(closest.getGeometry().getCoordinate()) : null;
-			PedSimCity.buildingsMap.put(building.buildingID, building);
+			buildings.add(building);
 		}
+		PedSimCity.buildingsMap = new IndexMapping<>(buildings, building -> building.buildingID);
 
 		PedSimCity.network.getNodes().forEach((node) -> {
 			List<MasonGeometry> nearestBuildings = PedSimCity.buildings
@@ -178,6 +210,9 @@ public class Environment {
 			}
 			node.adjacentRegions = node.getAdjacentRegion();
 		}
+		for (Region region : PedSimCity.regionsMap.values())
+			region.gatewaysArray = region.gateways.toArray(new Gateway[0]);
+		RegionsGraph.build(PedSimCity.regionsMap);
 	}
 
 	/**
@@ -185,15 +220,17 @@ public class Environment {
 	 */
 	static private void prepareDualGraph() {
 
-		List<MasonGeometry> centroids = PedSimCity.centroids.getGeometries();
-		for (final MasonGeometry centroidGeometry : centroids) {
+		List<MasonGeometry> geometries = PedSimCity.centroids.getGeometries();
+		List<NodeGraph> centroids = new ArrayList<>(geometries.size());
+		for (final MasonGeometry centroidGeometry : geometries) {
 			int edgeID = centroidGeometry.getIntegerAttribute("edgeID");
 			NodeGraph centroid = PedSimCity.dualNetwork.findNode(centroidGeometry.geometry.getCoordinate());
 			centroid.setID(edgeID);
 			centroid.setPrimalEdge(PedSimCity.edgesMap.get(edgeID));
 			PedSimCity.edgesMap.get(edgeID).setDualNode(centroid);
-			PedSimCity.centroidsMap.put(edgeID, centroid);
+			centroids.add(centroid);
 		}
+		PedSimCity.centroidsMap = new IndexMapping<>(centroids, NodeGraph::getID);
 
 		List<EdgeGraph> dualEdges = PedSimCity.dualNetwork.getEdges();
 		for (EdgeGraph edge : dualEdges)
@@ -208,6 +245,7 @@ public class Environment {
 		List<EdgeGraph> edges = PedSimCity.network.getEdges();
 		for (EdgeGraph edge : edges)
 			BarrierIntegration.setEdgeGraphBarriers(edge);
+		EdgeBarriers.build(edges);
 		generateBarriersMap();
 	}
 
@@ -218,24 +256,31 @@ public class Environment {
 
 		// Element 5 - Barriers: create barriers map
 		List<MasonGeometry> geometries = PedSimCity.barriers.getGeometries();
+		List<Barrier> barriers = new ArrayList<>(geometries.size());
 		for (final MasonGeometry barrierGeometry : geometries) {
 			final int barrierID = barrierGeometry.getIntegerAttribute("barrierID");
 			final Barrier barrier = new Barrier();
+			barrier.barrierID = barrierID;
 			barrier.masonGeometry = barrierGeometry;
 			barrier.type = barrierGeometry.getStringAttribute("type");
-			final ArrayList<EdgeGraph> edgesAlong = new ArrayList<>();
-
-			for (final EdgeGraph edge : PedSimCity.network.getEdges()) {
-				ArrayList<Integer> edgeBarriers = edge.attributes.get("barriers").getArray();
-				if (!edgeBarriers.isEmpty() && edgeBarriers.contains(barrierID))
-					edgesAlong.add(edge);
+			barrier.typeMask = Barrier.typeMask(barrier.type);
+			barrier.preparedGeometry = PreparedGeometryFactory.prepare(barrierGeometry.geometry);
+			barriers.add(barrier);
+		}
+		PedSimCity.barriersMap = new IndexMapping<>(barriers, barrier -> barrier.barrierID);
+		BarrierIntegration.buildBarriersIndex(PedSimCity.barriersMap.values());
+
+		// one pass over the edges, rather than one per barrier; each edge is visited
+		// once, so it can only be repeated amongst its own barrierIDs
+		Set<Integer> edgeBarrierIDs = new HashSet<>();
+		for (final EdgeGraph edge : PedSimCity.network.getEdges()) {
+			edgeBarrierIDs.clear();
+			for (int barrierID : EdgeBarriers.getBarriers(edge)) {
+				Barrier barrier = PedSimCity.barriersMap.get(barrierID);
+				if (barrier != null && edgeBarrierIDs.add(barrierID))
+					barrier.edgesAlong.add(edge);
 			}
-
-			barrier.edgesAlong = edgesAlong;
-			barrier.type = barrierGeometry.getStringAttribute("type");
-			PedSimCity.barriersMap.put(barrierID, barrier);
 		}
-
 	}
 
 	private static void prepareRegions() {
@@ -274,8 +319,41 @@ public class Environment {
 			region.regionID = regionID;
 			region.primalGraph = primalGraph;
 			region.dualGraph = dualGraph;
+			region.primalGraphMapping = new SubGraphMapping(primalGraph);
+			region.dualGraphMapping = new SubGraphMapping(dualGraph);
 			region.regionNetwork = regionNetwork;
+			setRegionSalientNodes(region);
+		}
+	}
+
+	/**
+	 * Computes the salient nodes of a region once, as found during navigation:
+	 * from the salient nodes percentile, decreasing by 0.05 till 0.50, the salient
+	 * nodes at the first percentile where any are found.
+	 *
+	 * @param region The region for which to compute the salient nodes.
+	 */
+	private static void setRegionSalientNodes(Region region) {
+
+		region.salientNodes = new NodeGraph[0];
+		region.salientNodesCentrality = new double[0];
+		for (double percentile : SalientNodesGrid.salientNodesPercentiles()) {
+			Map<NodeGraph, Double> salientNodes = new HashMap<NodeGraph, Double>(
+					region.primalGraph.getSubGraphSalientNodes(percentile));
+			if (salientNodes.isEmpty())
+				continue;
+
+			region.salientNodes = new NodeGraph[salientNodes.size()];
+			region.salientNodesCentrality = new double[salientNodes.size()];
+			int index = 0;
+			for (Entry<NodeGraph, Double> entry : salientNodes.entrySet()) {
+				region.salientNodes[index] = entry.getKey();
+				region.salientNodesCentrality[index] = entry.getValue();
+				index++;
+			}
+			break;
 		}
+		region.salientNodesPercentile = Parameters.salientNodesPercentile;
 	}
 
 	/**
@@ -8,12 +8,16 @@ import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.lang3.ArrayUtils;
 
 import pedSim.agents.EmpiricalAgentsGroup;
+import pedSim.engine.FlightEvents.ExportEvent;
+import pedSim.engine.Metrics.GroupMetrics;
+import pedSim.utilities.Histogram;
 import pedSim.utilities.RouteData;
 import pedSim.utilities.StringEnum;
 import pedSim.utilities.StringEnum.RouteChoice;
@@ -57,11 +61,12 @@ public class Exporter {
 	 */
 	public void saveVolumes() throws Exception {
 
+		ExportEvent event = FlightEvents.beginExport();
 		String specifier = findSpecifier() + "_streetVolumes";
 		outputVolumesDirectory = verifyOutputPath(outputVolumesDirectory, specifier);
 		outputVolumesDirectory += File.separator + currentDate + ".csv";
 		final FileWriter writerVolumesData = new FileWriter(outputVolumesDirectory);
-		Map<Integer, Map<String, Integer>> volumesMap = flowHandler.volumesMap;
+		int[][] volumes = flowHandler.volumes;
 		List<String> headers = new ArrayList<>();
 		headers.add("edgeID"); // Directly adding "edgeID" without specifying index
 
@@ -77,20 +82,29 @@ public class Exporter {
 		}
 		CSVUtils.writeLine(writerVolumesData, headers);
 
-		for (int edgeID : volumesMap.keySet()) {
-			Map<String, Integer> edgeVolumes = volumesMap.get(edgeID);
+		// the volumes' column of each header, -1 if none
+		List<String> columnHeaders = headers.subList(1, headers.size()); // Skip "edgeID" header
+		int[] columns = new int[columnHeaders.size()];
+		for (int i = 0; i < columns.length; i++)
+			columns[i] = flowHandler.getColumnIndex(columnHeaders.get(i));
+
+		for (int edgeIndex = 0; edgeIndex < volumes.length; edgeIndex++) {
 			List<String> row = new ArrayList<>();
 			// Adding edgeID as the first column value
-			row.add(Integer.toString(edgeID));
+			row.add(Integer.toString(PedSimCity.edgesMap.getOriginalID(edgeIndex)));
 
-			for (String columnHeader : headers.subList(1, headers.size())) { // Skip "edgeID" header
-				Integer volume = edgeVolumes.get(columnHeader);
-				row.add(volume != null ? Integer.toString(volume) : "0"); // Handle potential null values ;
-			}
+			for (int column : columns)
+				row.add(column != -1 ? Integer.toString(volumes[edgeIndex][column]) : "0");
 			CSVUtils.writeLine(writerVolumesData, row);
 		}
 		writerVolumesData.flush();
 		writerVolumesData.close();
+		if (event != null) {
+			event.output = outputVolumesDirectory;
+			event.records = volumes.length;
+			event.bytes = new File(outputVolumesDirectory).length();
+			FlightEvents.commit(event);
+		}
 	}
 
 	/**
@@ -101,6 +115,7 @@ public class Exporter {
 	 */
 	public void saveRoutes() throws Exception {
 
+		ExportEvent event = FlightEvents.beginExport();
 		String specifier = findSpecifier() + "_routes";
 		outputRoutesDirectory = verifyOutputPath(outputRoutesDirectory, specifier);
 		outputRoutesDirectory += File.separator + currentDate + "_" + job;
@@ -134,6 +149,72 @@ public class Exporter {
 			}
 		}
 		ShapeFileExporter.write(outputRoutesDirectory, routes);
+		if (event != null) {
+			event.output = outputRoutesDirectory;
+			event.records = flowHandler.routesData.size();
+			for (String extension : new String[] { ".shp", ".shx", ".dbf", ".prj" })
+				event.bytes += new File(outputRoutesDirectory + extension).length();
+			FlightEvents.commit(event);
+		}
+	}
+
+	/**
+	 * Saves the metrics recorded during the job to a CSV file, one row per metric:
+	 * the durations of the startup phases (group "startup") and, for each route
+	 * choice model or empirical group, the route planning and search metrics.
+	 *
+	 * @param metrics The metrics registry of the job.
+	 * @throws Exception If there is an error while saving the data.
+	 */
+	public void saveMetrics(Metrics metrics) throws Exception {
+
+		String specifier = findSpecifier() + "_metrics";
+		String outputMetricsDirectory = verifyOutputPath(null, specifier);
+		outputMetricsDirectory += File.separator + currentDate + "_" + job + ".csv";
+		final FileWriter writerMetrics = new FileWriter(outputMetricsDirectory);
+		CSVUtils.writeLine(writerMetrics, Arrays.asList("group", "metric", "value"));
+
+		for (Map.Entry<String, Long> phase : Metrics.getPhases().entrySet())
+			writeMetric(writerMetrics, "startup", phase.getKey() + " (ms)", phase.getValue() / 1e6);
+
+		for (Map.Entry<String, GroupMetrics> entry : metrics.getGroups().entrySet()) {
+			String group = entry.getKey();
+			GroupMetrics groupMetrics = entry.getValue();
+			Histogram latency = groupMetrics.planningLatency;
+			writeMetric(writerMetrics, group, "routes", latency.getCount());
+			writeMetric(writerMetrics, group, "planning mean (us)", latency.getMean());
+			writeMetric(writerMetrics, group, "planning p50 (us)", latency.getValueAtPercentile(50));
+			writeMetric(writerMetrics, group, "planning p90 (us)", latency.getValueAtPercentile(90));
+			writeMetric(writerMetrics, group, "planning p99 (us)", latency.getValueAtPercentile(99));
+			writeMetric(writerMetrics, group, "planning max (us)", latency.getMax());
+
+			Histogram settledNodes = groupMetrics.settledNodes;
+			writeMetric(writerMetrics, group, "searches", settledNodes.getCount());
+			writeMetric(writerMetrics, group, "settled nodes mean", settledNodes.getMean());
+			writeMetric(writerMetrics, group, "settled nodes p50", settledNodes.getValueAtPercentile(50));
+			writeMetric(writerMetrics, group, "settled nodes p99", settledNodes.getValueAtPercentile(99));
+			writeMetric(writerMetrics, group, "settled nodes max", settledNodes.getMax());
+
+			writeMetric(writerMetrics, group, "backtrackings", groupMetrics.backtrackings);
+			writeMetric(writerMetrics, group, "sub-goals", groupMetrics.subGoals);
+			writeLookups(writerMetrics, group, "trees", groupMetrics.treesHits, groupMetrics.treesMisses);
+			writeLookups(writerMetrics, group, "scores", groupMetrics.scoresHits, groupMetrics.scoresMisses);
+			writeLookups(writerMetrics, group, "view fields", groupMetrics.viewFieldsHits,
+					groupMetrics.viewFieldsMisses);
+		}
+		writerMetrics.flush();
+		writerMetrics.close();
+	}
+
+	private static void writeMetric(FileWriter writer, String group, String metric, Number value) throws Exception {
+		CSVUtils.writeLine(writer, Arrays.asList(group, metric, value.toString()));
+	}
+
+	private static void writeLookups(FileWriter writer, String group, String cache, long hits, long misses)
+			throws Exception {
+		long lookups = hits + misses;
+		writeMetric(writer, group, cache + " lookups", lookups);
+		writeMetric(writer, group, cache + " hit rate", lookups == 0 ? 0.0 : (double) hits / lookups);
 	}
 
 	private String findSpecifier() {
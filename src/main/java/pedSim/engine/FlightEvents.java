@@ -0,0 +1,135 @@
+package pedSim.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events describing the route planning, the Dijkstra
+ * searches, the export of the results and the preparation of the environment,
+ * for profiling runs with JFR. Events are only created when
+ * {@link Parameters#flightRecorderEvents} is true (and recorded when enabled in
+ * the JFR settings); otherwise the methods below return null or do nothing,
+ * without allocating.
+ */
+public class FlightEvents {
+
+	private static final String CATEGORY = "PedSimCity";
+
+	@Name("pedsimcity.RoutePlanning")
+	@Label("Route Planning")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	public static class RoutePlanningEvent extends Event {
+		@Label("Origin")
+		public int origin;
+		@Label("Destination")
+		public int destination;
+		@Label("Route Choice")
+		@Description("Route choice model or empirical group")
+		public String routeChoice;
+		@Label("Strategy")
+		public String strategy;
+		@Label("Legs")
+		public int legs;
+	}
+
+	@Name("pedsimcity.Dijkstra")
+	@Label("Dijkstra Search")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	public static class DijkstraEvent extends Event {
+		@Label("Kind")
+		public String kind;
+		@Label("Settled Nodes")
+		public int settledNodes;
+		@Label("SubGraph")
+		@Description("Whether the search ran within a region's SubGraph, rather than the whole network")
+		public boolean subGraph;
+	}
+
+	@Name("pedsimcity.Export")
+	@Label("Export")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	public static class ExportEvent extends Event {
+		@Label("Output")
+		public String output;
+		@Label("Records")
+		public int records;
+		@Label("Bytes Written")
+		@DataAmount
+		public long bytes;
+	}
+
+	@Name("pedsimcity.PreparePhase")
+	@Label("Environment Preparation Phase")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	public static class PhaseEvent extends Event {
+		@Label("Phase")
+		public String phase;
+	}
+
+	/**
+	 * Begins a route planning event.
+	 *
+	 * @return The event, or null if the events are disabled.
+	 */
+	public static RoutePlanningEvent beginRoutePlanning() {
+		return begin(Parameters.flightRecorderEvents ? new RoutePlanningEvent() : null);
+	}
+
+	/**
+	 * Begins a Dijkstra search event.
+	 *
+	 * @return The event, or null if the events are disabled.
+	 */
+	public static DijkstraEvent beginDijkstra() {
+		return begin(Parameters.flightRecorderEvents ? new DijkstraEvent() : null);
+	}
+
+	/**
+	 * Begins an export event.
+	 *
+	 * @return The event, or null if the events are disabled.
+	 */
+	public static ExportEvent beginExport() {
+		return begin(Parameters.flightRecorderEvents ? new ExportEvent() : null);
+	}
+
+	/**
+	 * Begins an event for a phase of the environment preparation.
+	 *
+	 * @param phase The name of the phase.
+	 * @return The event, or null if the events are disabled.
+	 */
+	public static PhaseEvent beginPhase(String phase) {
+		PhaseEvent event = begin(Parameters.flightRecorderEvents ? new PhaseEvent() : null);
+		if (event != null)
+			event.phase = phase;
+		return event;
+	}
+
+	/**
+	 * Commits the event, if any and if enabled in the recording.
+	 *
+	 * @param event The event, possibly null.
+	 */
+	public static void commit(Event event) {
+		if (event != null && event.shouldCommit())
+			event.commit();
+	}
+
+	private static <T extends Event> T begin(T event) {
+		if (event != null && !event.isEnabled())
+			return null;
+		if (event != null)
+			event.begin();
+		return event;
+	}
+}
@@ -2,10 +2,7 @@ package pedSim.engine;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 import pedSim.agents.Agent;
 import pedSim.agents.AgentProperties;
@@ -21,7 +18,10 @@ import sim.routing.Route;
  */
 public class FlowHandler {
 
-	public Map<Integer, Map<String, Integer>> volumesMap = new HashMap<Integer, Map<String, Integer>>();
+	// edge index (see PedSimCity.edgesMap) -> column -> volume
+	public int[][] volumes;
+	// the volumes' columns: route choice models or empirical groups
+	public String[] columns;
 	public List<RouteData> routesData = new ArrayList<>();
 	public int job;
 
@@ -39,17 +39,26 @@ public class FlowHandler {
 	 */
 	private void initializeEdgeVolumes() {
 
-		for (int edgeID : PedSimCity.edgesMap.keySet()) {
-			Map<String, Integer> edgeVolumes = new HashMap<String, Integer>();
-			if (!Parameters.empirical)
-				edgeVolumes = Arrays.stream(Parameters.routeChoiceModels)
-						.collect(Collectors.toMap(routeChoice -> routeChoice.toString(), routeChoice -> 0));
-			else
-				edgeVolumes = PedSimCity.empiricalGroups.stream().collect(
-						Collectors.toMap(empiricalGroup -> empiricalGroup.groupName.toString(), empiricalGroup -> 0));
+		if (!Parameters.empirical)
+			columns = Arrays.stream(Parameters.routeChoiceModels).map(routeChoice -> routeChoice.toString())
+					.distinct().toArray(String[]::new);
+		else
+			columns = PedSimCity.empiricalGroups.stream().map(empiricalGroup -> empiricalGroup.groupName.toString())
+					.distinct().toArray(String[]::new);
+		volumes = new int[PedSimCity.edgesMap.size()][columns.length];
+	}
 
-			volumesMap.put(edgeID, edgeVolumes);
-		}
+	/**
+	 * Returns the column of the given route choice model or empirical group.
+	 *
+	 * @param column The name of the route choice model or empirical group.
+	 * @return The index of the column, or -1 if there is no such column.
+	 */
+	public int getColumnIndex(String column) {
+		for (int i = 0; i < columns.length; i++)
+			if (columns[i].equals(column))
+				return i;
+		return -1;
 	}
 
 	/**
@@ -67,11 +76,9 @@ public class FlowHandler {
 				: agentProperties.routeChoice.toString();
 
 		RouteData routeData = createRouteData(agent, route, attribute);
-		for (EdgeGraph edgeGraph : route.edgesSequence) {
-			Map<String, Integer> edgeVolume = volumesMap.get(edgeGraph.getID());
-			edgeVolume.replace(attribute, edgeVolume.get(attribute) + 1);
-			volumesMap.replace(edgeGraph.getID(), edgeVolume);
-		}
+		int column = getColumnIndex(attribute);
+		for (EdgeGraph edgeGraph : route.edgesSequence)
+			volumes[PedSimCity.edgesMap.indexOf(edgeGraph.getID())][column]++;
 		routeData.edgeIDsSequence = GraphUtils.getEdgeIDs(route.edgesSequence);
 		routesData.add(routeData);
 	}
@@ -44,6 +44,7 @@ public class Import {
 			else if (Parameters.testingSubdivisions)
 				resourcePath += "/subdivisions";
 		}
+		long start = System.nanoTime();
 		if (Parameters.testingLandmarks) {
 			importDistances();
 			readLandmarksAndSightLines();
@@ -57,8 +58,10 @@ public class Import {
 			readLandmarksAndSightLines();
 			readBarriers();
 		}
+		start = Metrics.recordPhase("import layers", start);
 		// Read the street network shapefiles and create the primal and the dual graph
 		readGraphs();
+		Metrics.recordPhase("import graphs", start);
 	}
 
 	/**
@@ -0,0 +1,193 @@
+package pedSim.engine;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import pedSim.agents.Agent;
+import pedSim.agents.EmpiricalAgentProperties;
+import pedSim.utilities.Histogram;
+
+/**
+ * Lightweight registry of the metrics describing where the time of a run goes:
+ * the duration of the startup phases (import and preparation of the
+ * environment, shared by the jobs), and, for each route choice model or
+ * empirical group, the route planning latency, the nodes settled per search,
+ * the backtracking invocations, the sub-goals produced and the hit rates of the
+ * shortest-path trees, of the cached global landmarkness scores and of the
+ * cached view fields. Metrics are only recorded when
+ * {@link Parameters#recordMetrics} is true, and are exported per job by the
+ * {@link Exporter}.
+ */
+public class Metrics {
+
+	// phase -> duration in nanoseconds
+	private static final Map<String, Long> phases = new LinkedHashMap<>();
+	// route choice model or empirical group -> metrics
+	private final Map<String, GroupMetrics> groups = new TreeMap<>();
+
+	/**
+	 * The metrics of a route choice model or empirical group.
+	 */
+	public static class GroupMetrics {
+		// route planning latency, in microseconds
+		public final Histogram planningLatency = new Histogram();
+		public final Histogram settledNodes = new Histogram();
+		public long backtrackings = 0;
+		public long subGoals = 0;
+		public long treesHits = 0;
+		public long treesMisses = 0;
+		public long scoresHits = 0;
+		public long scoresMisses = 0;
+		public long viewFieldsHits = 0;
+		public long viewFieldsMisses = 0;
+	}
+
+	/**
+	 * Records the duration of a startup phase, started at the given time, and
+	 * returns the current time, so that consecutive phases can be chained.
+	 * Durations of phases with the same name are summed.
+	 *
+	 * @param phase     The name of the phase.
+	 * @param startTime The start of the phase, as returned by System.nanoTime().
+	 * @return The current time, in nanoseconds.
+	 */
+	public static synchronized long recordPhase(String phase, long startTime) {
+		long now = System.nanoTime();
+		if (Parameters.recordMetrics)
+			phases.merge(phase, now - startTime, Long::sum);
+		return now;
+	}
+
+	/**
+	 * Returns the durations of the startup phases.
+	 *
+	 * @return A map from the name of the phase to its duration, in nanoseconds.
+	 */
+	public static synchronized Map<String, Long> getPhases() {
+		return new LinkedHashMap<>(phases);
+	}
+
+	/**
+	 * Records the time taken to plan a route.
+	 *
+	 * @param agent The agent for which the route was planned.
+	 * @param nanos The duration, in nanoseconds.
+	 */
+	public synchronized void recordRoutePlanning(Agent agent, long nanos) {
+		if (Parameters.recordMetrics)
+			getGroupMetrics(agent).planningLatency.record(nanos / 1000);
+	}
+
+	/**
+	 * Records the nodes settled by a run of the Dijkstra algorithm.
+	 *
+	 * @param agent        The agent for which the search was run.
+	 * @param settledNodes The number of settled nodes.
+	 */
+	public synchronized void recordSearch(Agent agent, int settledNodes) {
+		if (Parameters.recordMetrics)
+			getGroupMetrics(agent).settledNodes.record(settledNodes);
+	}
+
+	/**
+	 * Records an invocation of the backtracking procedures.
+	 *
+	 * @param agent The agent whose route is being planned.
+	 */
+	public synchronized void recordBacktracking(Agent agent) {
+		if (Parameters.recordMetrics)
+			getGroupMetrics(agent).backtrackings++;
+	}
+
+	/**
+	 * Records the sub-goals identified for a route.
+	 *
+	 * @param agent    The agent whose route is being planned.
+	 * @param subGoals The number of sub-goals, excluding origin and destination.
+	 */
+	public synchronized void recordSubGoals(Agent agent, int subGoals) {
+		if (Parameters.recordMetrics)
+			getGroupMetrics(agent).subGoals += subGoals;
+	}
+
+	/**
+	 * Records a lookup in the shortest-path trees computed while planning a
+	 * route.
+	 *
+	 * @param agent The agent whose route is being planned.
+	 * @param hit   Whether the search was answered by a stored tree.
+	 */
+	public synchronized void recordTreesLookup(Agent agent, boolean hit) {
+		if (!Parameters.recordMetrics)
+			return;
+		GroupMetrics groupMetrics = getGroupMetrics(agent);
+		if (hit)
+			groupMetrics.treesHits++;
+		else
+			groupMetrics.treesMisses++;
+	}
+
+	/**
+	 * Records a lookup in the cache of the global landmarkness scores, by
+	 * destination.
+	 *
+	 * @param agent The agent whose route is being planned.
+	 * @param hit   Whether the scores were cached.
+	 */
+	public synchronized void recordScoresLookup(Agent agent, boolean hit) {
+		if (!Parameters.recordMetrics)
+			return;
+		GroupMetrics groupMetrics = getGroupMetrics(agent);
+		if (hit)
+			groupMetrics.scoresHits++;
+		else
+			groupMetrics.scoresMisses++;
+	}
+
+	/**
+	 * Records a lookup in the cache of the view fields and the barriers
+	 * intersecting them.
+	 *
+	 * @param agent The agent whose route is being planned.
+	 * @param hit   Whether the view field was cached.
+	 */
+	public synchronized void recordViewFieldLookup(Agent agent, boolean hit) {
+		if (!Parameters.recordMetrics)
+			return;
+		GroupMetrics groupMetrics = getGroupMetrics(agent);
+		if (hit)
+			groupMetrics.viewFieldsHits++;
+		else
+			groupMetrics.viewFieldsMisses++;
+	}
+
+	/**
+	 * Returns the metrics recorded so far.
+	 *
+	 * @return A map from route choice model or empirical group to its metrics.
+	 */
+	public synchronized Map<String, GroupMetrics> getGroups() {
+		return new TreeMap<>(groups);
+	}
+
+	/**
+	 * Returns the metrics of the agent's route choice model or empirical group.
+	 */
+	private GroupMetrics getGroupMetrics(Agent agent) {
+		return groups.computeIfAbsent(getGroupName(agent), name -> new GroupMetrics());
+	}
+
+	/**
+	 * Returns the name of the agent's route choice model or, for empirical agents,
+	 * group.
+	 *
+	 * @param agent The agent.
+	 * @return The name.
+	 */
+	public static String getGroupName(Agent agent) {
+		if (Parameters.empirical)
+			return ((EmpiricalAgentProperties) agent.getProperties()).groupName.toString();
+		return String.valueOf(agent.getProperties().routeChoice);
+	}
+}
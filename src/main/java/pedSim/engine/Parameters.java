@@ -69,6 +69,22 @@ public class Parameters {
 	// weight Global Landmarkness in combination with edge costs (angular change)
 	public static double globalLandmarknessWeightAngular = 0.95;
 	public static double regionBasedNavigationThreshold = 500; // Region-based navigation Threshold - meters
+	// answer searches from the same origin, within a route planning, from the shortest-path tree already computed
+	public static boolean reuseShortestPathTrees = false;
+	// max number of nodes across the shortest-path trees kept while planning a route
+	public static int shortestPathTreesNodes = 250000;
+	public static int globalLandmarknessCacheSize = 256; // destinations with cached scores
+	public static int viewFieldCacheSize = 4096; // cached view-field queries
+	// plan in advance, one search per origin, the trips of agents only minimising road distance
+	public static boolean batchPlanning = false;
+	// rebuild the agents' spatial index at every step (not in the event-driven mode); only needed for the GUI
+	public static boolean indexAgentPositions = true;
+	// step the agents only when starting a trip, rather than at every tick; trips end and agents are located as when stepped
+	public static boolean eventDriven = false;
+	// record startup phases and route planning metrics, exported per job along with the volumes
+	public static boolean recordMetrics = false;
+	// emit Java Flight Recorder events (route planning, searches, export, preparation); off, they cost nothing
+	public static boolean flightRecorderEvents = false;
 
 	// Wayfinding Easiness threshold
 	public static double wayfindingEasinessThreshold = 0.95; // global navigation for local landmark identification
@@ -13,6 +13,8 @@ import pedSim.agents.EmpiricalAgentsGroup;
 import pedSim.cognitiveMap.Barrier;
 import pedSim.cognitiveMap.Gateway;
 import pedSim.cognitiveMap.Region;
+import pedSim.routeChoice.BatchPlanner;
+import pedSim.utilities.IndexMapping;
 import sim.engine.SimState;
 import sim.engine.Stoppable;
 import sim.field.geo.VectorLayer;
@@ -43,14 +45,15 @@ public class PedSimCity extends SimState {
 	public static VectorLayer centroids = new VectorLayer();
 
 	// supporting HashMaps, bags and Lists
-	public static Map<Integer, Building> buildingsMap = new HashMap<>();
 	public static Map<Integer, Region> regionsMap = new HashMap<>();
-	public static Map<Integer, Barrier> barriersMap = new HashMap<>();
 	public static Map<Pair<NodeGraph, NodeGraph>, Gateway> gatewaysMap = new HashMap<>();
-	public static Map<Integer, NodeGraph> nodesMap = new HashMap<>();
-	public static Map<Integer, EdgeGraph> edgesMap = new HashMap<>();
-
-	public static HashMap<Integer, NodeGraph> centroidsMap = new HashMap<>();
+	// dense indices of the elements identified by the shapefiles' IDs, assigned at import
+	public static IndexMapping<Building> buildingsMap = new IndexMapping<>();
+	public static IndexMapping<Barrier> barriersMap = new IndexMapping<>();
+	public static IndexMapping<NodeGraph> nodesMap = new IndexMapping<>();
+	public static IndexMapping<EdgeGraph> edgesMap = new IndexMapping<>();
+	// centroids of the dual graph, by edgeID
+	public static IndexMapping<NodeGraph> centroidsMap = new IndexMapping<>();
 
 	// OD related variables
 	public static List<Float> distances = new ArrayList<>();
@@ -65,6 +68,8 @@ public class PedSimCity extends SimState {
 
 	public VectorLayer agents;
 	public ArrayList<Agent> agentsList;
+	public CompletionTracker completionTracker = new CompletionTracker();
+	public Metrics metrics = new Metrics();
 
 	/**
 	 * Constructs a new instance of the PedSimCity simulation environment.
@@ -84,6 +89,33 @@ public class PedSimCity extends SimState {
 		return agentsList;
 	}
 
+	/**
+	 * Adds an agent, whose OD list has been set, to the simulation.
+	 *
+	 * @param agent The agent to be added.
+	 */
+	public void addAgent(Agent agent) {
+		agent.setListIndex(agentsList.size());
+		agentsList.add(agent);
+		completionTracker.registerAgent(agent.OD.size());
+	}
+
+	/**
+	 * Removes an agent from the simulation, by moving the last agent of the list
+	 * into its position. The simulation finishes once the last agent is removed.
+	 *
+	 * @param agent The agent to be removed.
+	 */
+	public void removeAgent(Agent agent) {
+		int index = agent.getListIndex();
+		Agent last = agentsList.remove(agentsList.size() - 1);
+		if (last != agent) {
+			agentsList.set(index, last);
+			last.setListIndex(index);
+		}
+		completionTracker.agentRetired();
+	}
+
 	/**
 	 * Initialises the simulation by defining the simulation mode, initialising edge
 	 * volumes, and preparing the simulation environment. It then proceeds to
@@ -92,6 +124,7 @@ public class PedSimCity extends SimState {
 	@Override
 	public void start() {
 		super.start();
+		completionTracker.addCompletionListener(this::finish);
 		prepareEnvironment();
 		populateEnvironment();
 		startMovingAgents();
@@ -118,8 +151,11 @@ public class PedSimCity extends SimState {
 	 */
 	private void populateEnvironment() {
 		Populate populate = new Populate();
-		if (Parameters.testing)
+		if (Parameters.testing) {
 			populate.populateTests(this);
+			if (Parameters.batchPlanning)
+				BatchPlanner.planRoutes(agentsList);
+		}
 		if (Parameters.empirical)
 			populate.populateEmpiricalGroups(this);
 		else {
@@ -129,17 +165,37 @@ public class PedSimCity extends SimState {
 
 	/**
 	 * Starts moving agents in the simulation. This method schedules agents for
-	 * repeated movement updates and sets up the spatial index for agents.
+	 * repeated movement updates and, unless disabled, sets up the spatial index for
+	 * agents. In the event-driven mode, the agents' positions are not updated at
+	 * every step, but only when requested (see {@link #updateAgentPositions()}).
 	 */
 	private void startMovingAgents() {
 		for (Agent agent : this.agentsList) {
-			Stoppable stop = schedule.scheduleRepeating(agent);
-			agent.setStoppable(stop);
-			schedule.scheduleRepeating(agents.scheduleSpatialIndexUpdater(), Integer.MAX_VALUE, 1.0);
+			if (Parameters.eventDriven)
+				schedule.scheduleOnce(agent);
+			else {
+				Stoppable stop = schedule.scheduleRepeating(agent);
+				agent.setStoppable(stop);
+			}
 		}
+		// a single rebuild of the agents' spatial index per step, after all the agents moved
+		if (Parameters.indexAgentPositions && !Parameters.eventDriven)
+			schedule.scheduleRepeating(agents.scheduleSpatialIndexUpdater(), Integer.MAX_VALUE, 1.0);
 		agents.setMBR(MBR);
 	}
 
+	/**
+	 * Brings the agents' positions and their spatial index up to date, for
+	 * callers that query them (e.g. a GUI or a sampler). In the event-driven mode,
+	 * the agents are first moved to their current position along their routes.
+	 */
+	public void updateAgentPositions() {
+		if (Parameters.eventDriven)
+			for (Agent agent : agentsList)
+				agent.locateAt(schedule.getTime());
+		agents.scheduleSpatialIndexUpdater().step(this);
+	}
+
 	/**
 	 * Completes the simulation by saving results and performing cleanup operations.
 	 */
@@ -150,6 +206,8 @@ public class PedSimCity extends SimState {
 			Exporter exporter = new Exporter(flowHandler);
 			exporter.saveVolumes();
 			exporter.saveRoutes();
+			if (Parameters.recordMetrics)
+				exporter.saveMetrics(metrics);
 		} catch (final Exception e) {
 			e.printStackTrace();
 		}
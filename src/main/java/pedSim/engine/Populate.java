@@ -123,7 +123,7 @@ public class Populate {
 		agent.OD = new LinkedList<>(thisAgentODs);
 		agent.agentID = agentID;
 		state.agents.addGeometry(agent.getGeometry());
-		state.agentsList.add(agent);
+		state.addAgent(agent);
 	}
 
 	/**
@@ -1,7 +1,6 @@
 package pedSim.routeChoice;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 
 import org.locationtech.jts.planargraph.DirectedEdge;
@@ -46,8 +45,8 @@ public class AngularChangePathFinder extends PathFinder {
 		}
 
 		DijkstraAngularChange dijkstra = new DijkstraAngularChange();
-		partialSequence = dijkstra.dijkstraAlgorithm(dualOrigin, dualDestination, destinationNode,
-				new HashSet<NodeGraph>(centroidsToAvoid), previousJunction, agent);
+		partialSequence = dijkstra.dijkstraAlgorithm(dualOrigin, dualDestination, destinationNode, null,
+				previousJunction, agent);
 		cleanDualPath(originNode, destinationNode);
 		route.directedEdgesSequence = partialSequence;
 		route.computeRouteSequences();
@@ -83,7 +82,6 @@ public class AngularChangePathFinder extends PathFinder {
 			partialSequence = new ArrayList<>();
 
 			if (tmpOrigin != originNode) {
-				centroidsToAvoid = RoutingUtils.getCentroidsFromEdgesSequence(completeSequence);
 				previousJunction = RoutingUtils.getPreviousJunction(completeSequence);
 
 				// check if tmpDestination traversed already
@@ -108,10 +106,8 @@ public class AngularChangePathFinder extends PathFinder {
 					if (sharedJunction != null) {
 						addEdgesCommonJunction(sharedJunction);
 					} else {
-						final DijkstraAngularChange pathfinder = new DijkstraAngularChange();
-						HashSet<NodeGraph> centroidsToAvoidSet = new HashSet<>(centroidsToAvoid);
-						partialSequence = pathfinder.dijkstraAlgorithm(tmpDualOrigin, tmpDualDestination,
-								destinationNode, centroidsToAvoidSet, tmpOrigin, agent);
+						partialSequence = trees.angularChange(tmpDualOrigin, tmpDualDestination, destinationNode,
+								updateEdgesToAvoid(), tmpOrigin, agent);
 					}
 					if (!partialSequence.isEmpty())
 						break;
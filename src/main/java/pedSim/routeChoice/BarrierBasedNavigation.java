@@ -1,7 +1,6 @@
 package pedSim.routeChoice;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -12,10 +11,13 @@ import java.util.Set;
 import org.javatuples.Pair;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
 
 import pedSim.agents.Agent;
 import pedSim.cognitiveMap.Barrier;
 import pedSim.cognitiveMap.BarrierIntegration;
+import pedSim.cognitiveMap.EdgeBarriers;
 import pedSim.cognitiveMap.Region;
 import pedSim.engine.PedSimCity;
 import sim.graph.EdgeGraph;
@@ -140,17 +142,25 @@ public class BarrierBasedNavigation {
 
 		Coordinate currentCoordinate = currentLocation.getCoordinate();
 		Coordinate destinationCoordinate = destinationNode.getCoordinate();
+		PreparedGeometry preparedViewField = null;
 
 		// for each candidate barrier, check whether it complies with the criteria
 		for (int barrierID : intersectingBarriers) {
 			if (visitedBarriers.contains(barrierID))
 				continue;
 			MasonGeometry barrierGeometry = PedSimCity.barriersMap.get(barrierID).masonGeometry;
-			Coordinate[] intersections = viewField.intersection(barrierGeometry.geometry).getCoordinates();
+			if (preparedViewField == null)
+				preparedViewField = PreparedGeometryFactory.prepare(viewField);
 
-			double minDistance = Arrays.stream(intersections).parallel()
-					.mapToDouble(intersection -> GeometryUtilities.euclideanDistance(currentCoordinate, intersection))
-					.min().orElse(Double.MAX_VALUE);
+			// when the barrier lies entirely within the view field, the intersection is
+			// the barrier itself
+			Coordinate[] intersections = preparedViewField.contains(barrierGeometry.geometry)
+					? barrierGeometry.geometry.getCoordinates()
+					: viewField.intersection(barrierGeometry.geometry).getCoordinates();
+
+			double minDistance = Double.MAX_VALUE;
+			for (Coordinate intersection : intersections)
+				minDistance = Math.min(minDistance, GeometryUtilities.euclideanDistance(currentCoordinate, intersection));
 
 			// barriers that are more distant than the destinationNode are disregarded
 			if (minDistance > GeometryUtilities.euclideanDistance(currentCoordinate, destinationCoordinate))
@@ -170,11 +180,9 @@ public class BarrierBasedNavigation {
 	private void identifyAdjacentBarriers() {
 		// identify barriers around this currentLocation
 		List<EdgeGraph> incomingEdges = currentLocation.getEdges();
-		for (EdgeGraph edge : incomingEdges) {
-			List<Integer> edgeBarriers = edge.attributes.get("barriers").getArray();
-			if (!edgeBarriers.isEmpty())
-				visitedBarriers.addAll(edgeBarriers);
-		}
+		for (EdgeGraph edge : incomingEdges)
+			for (int barrierID : EdgeBarriers.getBarriers(edge))
+				visitedBarriers.add(barrierID);
 	}
 
 	/**
@@ -0,0 +1,83 @@
+package pedSim.routeChoice;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.javatuples.Pair;
+import org.locationtech.jts.planargraph.DirectedEdge;
+
+import pedSim.agents.Agent;
+import pedSim.dijkstra.DijkstraRoadDistance;
+import sim.graph.NodeGraph;
+
+/**
+ * Plans in advance the trips of the agents that only minimise road distance,
+ * grouping them by origin so that a single search from each origin answers all
+ * the destinations of the group. The search stops once all the destinations
+ * have been settled.
+ * <p>
+ * The trips of a group share the perception errors drawn during the search,
+ * whereas they are independent when each trip is planned on its own; the batch
+ * planning is hence optional (see {@code Parameters.batchPlanning}). Agents
+ * with other route choice models, and empirical agents, whose properties are
+ * drawn at every trip, are planned as usual.
+ */
+public class BatchPlanner {
+
+	/**
+	 * Plans the trips of the road-distance minimising agents and stores the
+	 * resulting paths in the agents.
+	 *
+	 * @param agents The agents of the simulation.
+	 */
+	public static void planRoutes(List<Agent> agents) {
+
+		// origin -> trips (agent, trip index) departing from it
+		Map<NodeGraph, List<Pair<Agent, Integer>>> tripsByOrigin = new LinkedHashMap<>();
+		for (Agent agent : agents) {
+			if (!isBatchable(agent))
+				continue;
+			for (int trip = 0; trip < agent.OD.size(); trip++) {
+				NodeGraph originNode = agent.OD.get(trip).getValue0();
+				tripsByOrigin.computeIfAbsent(originNode, node -> new ArrayList<>()).add(new Pair<>(agent, trip));
+			}
+		}
+
+		for (Map.Entry<NodeGraph, List<Pair<Agent, Integer>>> entry : tripsByOrigin.entrySet()) {
+			List<Pair<Agent, Integer>> trips = entry.getValue();
+			Set<NodeGraph> destinations = new LinkedHashSet<>();
+			for (Pair<Agent, Integer> trip : trips)
+				destinations.add(trip.getValue0().OD.get(trip.getValue1()).getValue1());
+
+			List<NodeGraph> destinationNodes = new ArrayList<>(destinations);
+			DijkstraRoadDistance pathfinder = new DijkstraRoadDistance();
+			List<List<DirectedEdge>> sequences = pathfinder.dijkstraAlgorithm(entry.getKey(), destinationNodes,
+					trips.get(0).getValue0());
+
+			Map<NodeGraph, List<DirectedEdge>> sequencesMap = new HashMap<>();
+			for (int i = 0; i < destinationNodes.size(); i++)
+				sequencesMap.put(destinationNodes.get(i), sequences.get(i));
+
+			for (Pair<Agent, Integer> trip : trips) {
+				Agent agent = trip.getValue0();
+				NodeGraph destinationNode = agent.OD.get(trip.getValue1()).getValue1();
+				agent.setPlannedSequence(trip.getValue1(), new ArrayList<>(sequencesMap.get(destinationNode)));
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the trips of the given agent can be planned in batch.
+	 *
+	 * @param agent The agent.
+	 * @return True if the agent only minimises road distance; otherwise, false.
+	 */
+	private static boolean isBatchable(Agent agent) {
+		return agent.getProperties().routeChoice != null && agent.getProperties().minimisingDistance;
+	}
+}
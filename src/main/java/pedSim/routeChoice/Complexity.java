@@ -1,9 +1,9 @@
 package pedSim.routeChoice;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import pedSim.agents.Agent;
+import pedSim.cognitiveMap.BuildingsGrid;
 import pedSim.cognitiveMap.CommunityCognitiveMap;
 import pedSim.cognitiveMap.Region;
 import pedSim.engine.PedSimCity;
@@ -36,11 +36,12 @@ public class Complexity {
 				/ Math.max(PedSimCity.roads.MBR.getHeight(), PedSimCity.roads.MBR.getWidth());
 
 		double buildingsComplexity = 1.0;
-		List<MasonGeometry> buildings = new ArrayList<>(CommunityCognitiveMap.getBuildings(node, destinationNode));
-		List<MasonGeometry> landmarks = new ArrayList<>(getAgentLandmarks(agent, null));
-		if (!buildings.isEmpty()) {
-			landmarks.retainAll(buildings);
-			buildingsComplexity = buildingsComplexity(buildings, landmarks);
+		int[] counts = BuildingsGrid.countBuildings(node, destinationNode);
+		if (counts[BuildingsGrid.BUILDINGS] > 0) {
+			int landmarks = agent.getProperties().landmarkType.equals(LandmarkType.LOCAL)
+					? counts[BuildingsGrid.LOCAL_LANDMARKS]
+					: counts[BuildingsGrid.GLOBAL_LANDMARKS];
+			buildingsComplexity = buildingsComplexity(counts[BuildingsGrid.BUILDINGS], landmarks);
 		}
 		double wayfindingComplexity = (distanceComplexity + buildingsComplexity) / 2.0;
 		double easiness = 1.0 - wayfindingComplexity;
@@ -86,6 +87,18 @@ public class Complexity {
 		return ((double) buildings.size() - landmarks.size()) / buildings.size();
 	}
 
+	/**
+	 * Computes the complexity of a certain area based on the number of buildings
+	 * and landmarks in it.
+	 *
+	 * @param buildings The number of buildings in the area.
+	 * @param landmarks The number of landmarks in the area.
+	 * @return The complexity value of the area.
+	 */
+	public double buildingsComplexity(int buildings, int landmarks) {
+		return ((double) buildings - landmarks) / buildings;
+	}
+
 	/**
 	 * Computes the building-based complexity of a region based on the type of
 	 * landmarkness (local or global).
@@ -96,17 +109,15 @@ public class Complexity {
 	 */
 	public double buildingsRegionComplexity(Region region, Agent agent) {
 
-		List<MasonGeometry> landmarks;
-		List<MasonGeometry> buildings = new ArrayList<>(CommunityCognitiveMap.getBuildingsWithinRegion(region));
-		if (buildings.isEmpty())
+		// region buildings and landmarks are identified once, when the cognitive map
+		// is set up
+		int buildings = region.buildings.size();
+		if (buildings == 0)
 			return 1.0;
 
 		LandmarkType agentLandmarkType = agent.getProperties().landmarkType;
-		if (agentLandmarkType.equals(LandmarkType.LOCAL))
-			landmarks = new ArrayList<>(CommunityCognitiveMap.getRegionLocalLandmarks(region));
-		else
-			landmarks = new ArrayList<>(CommunityCognitiveMap.getRegionGlobalLandmarks(region));
-
+		int landmarks = agentLandmarkType.equals(LandmarkType.LOCAL) ? region.localLandmarks.size()
+				: region.globalLandmarks.size();
 		return buildingsComplexity(buildings, landmarks);
 	}
 
@@ -28,8 +28,7 @@ public class GlobalLandmarksPathFinder extends PathFinder {
 		this.originNode = originNode;
 		this.destinationNode = destinationNode;
 		DijkstraGlobalLandmarks pathfinder = new DijkstraGlobalLandmarks();
-		partialSequence = pathfinder.dijkstraAlgorithm(originNode, destinationNode, destinationNode,
-				directedEdgesToAvoid, agent);
+		partialSequence = pathfinder.dijkstraAlgorithm(originNode, destinationNode, destinationNode, null, agent);
 		route.directedEdgesSequence = partialSequence;
 		route.computeRouteSequences();
 		return route;
@@ -67,8 +66,7 @@ public class GlobalLandmarksPathFinder extends PathFinder {
 			if (haveEdgesBetween())
 				continue;
 
-			final DijkstraGlobalLandmarks pathfinder = new DijkstraGlobalLandmarks();
-			partialSequence = pathfinder.dijkstraAlgorithm(tmpOrigin, tmpDestination, destinationNode, null, agent);
+			partialSequence = trees.globalLandmarks(tmpOrigin, tmpDestination, destinationNode, null, agent);
 
 			while (partialSequence.isEmpty() && !moveOn)
 				backtracking(tmpDestination);
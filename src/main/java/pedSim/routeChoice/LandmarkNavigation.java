@@ -1,22 +1,20 @@
 package pedSim.routeChoice;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.locationtech.jts.planargraph.DirectedEdge;
 
 import pedSim.agents.Agent;
-import pedSim.cognitiveMap.LandmarkIntegration;
+import pedSim.cognitiveMap.GlobalLandmarkness;
+import pedSim.cognitiveMap.LocalLandmarkness;
 import pedSim.cognitiveMap.Region;
+import pedSim.cognitiveMap.SalientNodesGrid;
 import pedSim.engine.Parameters;
 import pedSim.engine.PedSimCity;
-import sim.field.geo.VectorLayer;
-import sim.graph.Building;
 import sim.graph.Graph;
 import sim.graph.GraphUtils;
 import sim.graph.NodeGraph;
@@ -33,7 +31,11 @@ public class LandmarkNavigation {
 	private List<NodeGraph> sequence = new ArrayList<>();
 	private List<NodeGraph> inRegionSequence = new ArrayList<>();
 	private Complexity complexity = new Complexity();
-	private Map<NodeGraph, Double> salientNodes = new HashMap<NodeGraph, Double>();
+	// salient junctions and their centrality; only the first salientNodesCount
+	// entries are valid
+	private NodeGraph[] salientNodes = new NodeGraph[0];
+	private double[] salientNodesCentrality = new double[0];
+	private int salientNodesCount = 0;
 	private Agent agent;
 	private NodeGraph currentNode;
 	private Graph agentNetwork;
@@ -65,7 +67,7 @@ public class LandmarkNavigation {
 		sequence = new ArrayList<>();
 		findSalientJunctions(originNode);
 
-		if (salientNodes.isEmpty())
+		if (salientNodesCount == 0)
 			return sequence;
 
 		// compute wayfinding easiness and the resulting research space
@@ -76,12 +78,12 @@ public class LandmarkNavigation {
 		// while the wayfindingEasiness is lower than the threshold the agent looks for
 		// intermediate-points.
 		while (wayfindingEasiness < Parameters.wayfindingEasinessThreshold) {
-			NodeGraph bestNode = findOnRouteMark(salientNodes, searchDistance);
+			NodeGraph bestNode = findOnRouteMark(searchDistance);
 			if (bestNode == null || bestNode.equals(currentNode))
 				break;
 			sequence.add(bestNode);
 			findSalientJunctions(bestNode);
-			if (salientNodes.isEmpty())
+			if (salientNodesCount == 0)
 				return sequence;
 			wayfindingEasiness = complexity.wayfindingEasiness(bestNode, destinationNode, agent);
 			searchDistance = GraphUtils.nodesDistance(bestNode, destinationNode) * wayfindingEasiness;
@@ -103,23 +105,35 @@ public class LandmarkNavigation {
 	 */
 	public void findSalientJunctions(NodeGraph node) {
 
-		double percentile = Parameters.salientNodesPercentile;
-		salientNodes = new HashMap<NodeGraph, Double>(
-				agentNetwork.getSalientNodesWithinSpace(node, destinationNode, percentile));
-
 		// If no salient junctions are found, the tolerance increases till the 0.50
-		// percentile;
+		// percentile; the index walks the percentile steps down in a single scan
+		setSalientNodes(SalientNodesGrid.getGrid(agentNetwork).getSalientNodesWithinSpace(node, destinationNode));
+
 		// if still no salient junctions are found, the agent continues without
 		// landmarks
-		while (salientNodes.isEmpty()) {
-			percentile -= 0.05;
-			if (percentile < 0.50) {
-				sequence.add(0, originNode);
-				sequence.add(destinationNode);
-				break;
-			}
-			salientNodes = new HashMap<NodeGraph, Double>(
-					agentNetwork.getSalientNodesWithinSpace(node, destinationNode, percentile));
+		if (salientNodesCount == 0) {
+			sequence.add(0, originNode);
+			sequence.add(destinationNode);
+		}
+	}
+
+	/**
+	 * Stores the passed salient junctions and their centrality in the salient
+	 * nodes arrays, preserving the map's iteration order.
+	 *
+	 * @param salientNodesMap A map of salient junctions and their centrality
+	 *                        scores.
+	 */
+	private void setSalientNodes(Map<NodeGraph, Double> salientNodesMap) {
+		// new arrays: the current ones may be shared with a region
+		salientNodesCount = salientNodesMap.size();
+		salientNodes = new NodeGraph[salientNodesCount];
+		salientNodesCentrality = new double[salientNodesCount];
+		int index = 0;
+		for (Map.Entry<NodeGraph, Double> entry : salientNodesMap.entrySet()) {
+			salientNodes[index] = entry.getKey();
+			salientNodesCentrality[index] = entry.getValue();
+			index++;
 		}
 	}
 
@@ -128,27 +142,34 @@ public class LandmarkNavigation {
 	 * destination node, amongst the salient nodes (junctions).
 	 *
 	 * @param currentNode    The current node in the navigation.
-	 * @param salientNodes   A map of salient junctions and their centrality scores
-	 *                       along the route.
 	 * @param searchDistance The search distance limit from the currentNode for
 	 *                       evaluating potential nodes.
 	 * @return The selected node that serves as an on-route mark, or null if none is
 	 *         found.
 	 */
-	private NodeGraph findOnRouteMark(Map<NodeGraph, Double> salientNodes, Double searchDistance) {
-
-		List<NodeGraph> junctions = new ArrayList<>(salientNodes.keySet());
-		List<Double> centralities = new ArrayList<>(salientNodes.values());
-		double maxCentrality = Collections.max(centralities);
-		double minCentrality = Collections.min(centralities);
+	private NodeGraph findOnRouteMark(Double searchDistance) {
 
-		List<NodeGraph> sortedJunctions = junctions.stream()
-				.filter(candidateNode -> checkCriteria(candidateNode, searchDistance))
-				.sorted(Comparator
-						.comparingDouble(candidateNode -> calculateScore(candidateNode, minCentrality, maxCentrality)))
-				.collect(Collectors.toList());
+		double maxCentrality = Double.NEGATIVE_INFINITY;
+		double minCentrality = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < salientNodesCount; i++) {
+			maxCentrality = Math.max(maxCentrality, salientNodesCentrality[i]);
+			minCentrality = Math.min(minCentrality, salientNodesCentrality[i]);
+		}
 
-		return sortedJunctions.isEmpty() ? null : sortedJunctions.get(sortedJunctions.size() - 1);
+		// ties are resolved in favour of the last candidate, as with a stable sort
+		NodeGraph bestNode = null;
+		double bestScore = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < salientNodesCount; i++) {
+			NodeGraph candidateNode = salientNodes[i];
+			if (!checkCriteria(candidateNode, searchDistance))
+				continue;
+			double score = calculateScore(candidateNode, minCentrality, maxCentrality);
+			if (Double.compare(score, bestScore) >= 0) {
+				bestScore = score;
+				bestNode = candidateNode;
+			}
+		}
+		return bestNode;
 	}
 
 	/**
@@ -236,7 +257,7 @@ public class LandmarkNavigation {
 
 		Region region = PedSimCity.regionsMap.get(currentNode.regionID);
 		findRegionSalientJunctions(region);
-		if (salientNodes.isEmpty())
+		if (salientNodesCount == 0)
 			return inRegionSequence;
 		// compute wayfinding complexity and the resulting easinesss
 		double wayfindingEasiness = complexity.wayfindingEasinessRegion(currentNode, exitGateway, originNode,
@@ -246,13 +267,13 @@ public class LandmarkNavigation {
 		// while the wayfindingEasiness is lower than the threshold the agent looks for
 		// intermediate-points.
 		while (wayfindingEasiness < Parameters.wayfindingEasinessThresholdRegions) {
-			NodeGraph bestNode = findOnRouteMarkRegion(exitGateway, salientNodes, searchDistance);
+			NodeGraph bestNode = findOnRouteMarkRegion(exitGateway, searchDistance);
 
 			if (bestNode == null || bestNode.equals(exitGateway) || bestNode.equals(destinationNode))
 				break;
 			inRegionSequence.add(bestNode);
 			findRegionSalientJunctions(region);
-			if (salientNodes.isEmpty())
+			if (salientNodesCount == 0)
 				return inRegionSequence;
 
 			wayfindingEasiness = complexity.wayfindingEasinessRegion(bestNode, originNode, destinationNode, exitGateway,
@@ -273,16 +294,21 @@ public class LandmarkNavigation {
 	private void findRegionSalientJunctions(Region region) {
 
 		double percentile = Parameters.salientNodesPercentile;
-		salientNodes = new HashMap<NodeGraph, Double>(region.primalGraph.getSubGraphSalientNodes(percentile));
+		// the region's salient nodes are precomputed for the current percentile
+		if (region.salientNodesPercentile == percentile) {
+			salientNodes = region.salientNodes;
+			salientNodesCentrality = region.salientNodesCentrality;
+			salientNodesCount = region.salientNodes.length;
+			return;
+		}
 
 		// If no salient junctions are found, the tolerance increases till the 0.50
 		// percentile;
 		// still no salient junctions are found, the agent continues without landmarks
-		while (salientNodes.isEmpty()) {
-			percentile -= 0.05;
-			if (percentile < 0.50)
-				break;
-			salientNodes = new HashMap<NodeGraph, Double>(region.primalGraph.getSubGraphSalientNodes(percentile));
+		for (double stepPercentile : SalientNodesGrid.salientNodesPercentiles()) {
+			setSalientNodes(new HashMap<NodeGraph, Double>(region.primalGraph.getSubGraphSalientNodes(stepPercentile)));
+			if (salientNodesCount > 0)
+				return;
 		}
 	}
 
@@ -292,30 +318,35 @@ public class LandmarkNavigation {
 	 *
 	 * @param currentNode    The current node in the region.
 	 * @param exitGateway    The exit gateway node from the region.
-	 * @param salientNodes   A map of salient junctions and their centrality scores
-	 *                       within the region.
 	 * @param searchDistance The search distance limit for evaluating potential
 	 *                       nodes.
 	 * @return The selected node that serves as an on-route mark, or null if none is
 	 *         found.
 	 */
-	private NodeGraph findOnRouteMarkRegion(NodeGraph exitGateway, Map<NodeGraph, Double> salientNodes,
-			Double searchDistance) {
+	private NodeGraph findOnRouteMarkRegion(NodeGraph exitGateway, Double searchDistance) {
 
-		List<NodeGraph> junctions = new ArrayList<>(salientNodes.keySet());
-		List<Double> centralities = new ArrayList<>(salientNodes.values());
 		double currentDistance = GraphUtils.getCachedNodesDistance(currentNode, exitGateway);
-		double maxCentrality = Collections.max(centralities);
-		double minCentrality = Collections.min(centralities);
-
-		// Optimised sorting using Comparator and Collections.sort
-		List<NodeGraph> sortedJunctions = junctions.stream()
-				.filter(candidateNode -> checkCriteria(candidateNode, exitGateway, searchDistance, currentDistance))
-				.sorted(Comparator.comparingDouble(candidateNode -> calculateScore(candidateNode, exitGateway,
-						currentDistance, minCentrality, maxCentrality)))
-				.collect(Collectors.toList());
+		double maxCentrality = Double.NEGATIVE_INFINITY;
+		double minCentrality = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < salientNodesCount; i++) {
+			maxCentrality = Math.max(maxCentrality, salientNodesCentrality[i]);
+			minCentrality = Math.min(minCentrality, salientNodesCentrality[i]);
+		}
 
-		return sortedJunctions.isEmpty() ? null : sortedJunctions.get(sortedJunctions.size() - 1);
+		// ties are resolved in favour of the last candidate, as with a stable sort
+		NodeGraph bestNode = null;
+		double bestScore = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < salientNodesCount; i++) {
+			NodeGraph candidateNode = salientNodes[i];
+			if (!checkCriteria(candidateNode, exitGateway, searchDistance, currentDistance))
+				continue;
+			double score = calculateScore(candidateNode, exitGateway, currentDistance, minCentrality, maxCentrality);
+			if (Double.compare(score, bestScore) >= 0) {
+				bestScore = score;
+				bestNode = candidateNode;
+			}
+		}
+		return bestNode;
 	}
 
 	/**
@@ -372,21 +403,28 @@ public class LandmarkNavigation {
 	 * @return The computed local landmarkness score for the node.
 	 */
 	private double localLandmarkness(NodeGraph candidateNode) {
-		List<Building> nodeLocalLandmarks = new ArrayList<>(candidateNode.adjacentBuildings);
-		VectorLayer agentLocalLandmarks = agent.getCognitiveMap().getLocalLandmarks();
-		List<Integer> agentLandmarksIDs = agentLocalLandmarks.getIDs();
+		return LocalLandmarkness.getScore(candidateNode, getKnownLocalLandmarks());
+	}
 
-		for (Building landmark : candidateNode.adjacentBuildings) {
-			if (!agentLandmarksIDs.contains(landmark.buildingID))
-				nodeLocalLandmarks.remove(landmark);
+	/**
+	 * Returns the local landmarks known by the agent, building the agent's bitset
+	 * from its cognitive map the first time it is needed.
+	 *
+	 * @return A bitset of the indices (in PedSimCity.buildingsMap) of the local
+	 *         landmarks known by the agent.
+	 */
+	private BitSet getKnownLocalLandmarks() {
+		BitSet knownLandmarks = agent.getKnownLocalLandmarks();
+		if (knownLandmarks == null) {
+			knownLandmarks = new BitSet(PedSimCity.buildingsMap.size());
+			for (int buildingID : agent.getCognitiveMap().getLocalLandmarks().getIDs()) {
+				int buildingIndex = PedSimCity.buildingsMap.indexOf(buildingID);
+				if (buildingIndex >= 0)
+					knownLandmarks.set(buildingIndex);
+			}
+			agent.setKnownLocalLandmarks(knownLandmarks);
 		}
-
-		if (nodeLocalLandmarks.isEmpty())
-			return 0.0;
-		List<Double> localScores = new ArrayList<>();
-		for (Building landmark : nodeLocalLandmarks)
-			localScores.add(landmark.attributes.get("localLandmarkness").getDouble());
-		return Collections.max(localScores);
+		return knownLandmarks;
 	}
 
 	/**
@@ -398,32 +436,7 @@ public class LandmarkNavigation {
 	 * @return The computed global landmarkness score for the target node.
 	 */
 	public static double globalLandmarknessNode(NodeGraph targetNode, NodeGraph destinationNode) {
-
-		// get the distant landmarks
-		List<Building> distantLandmarks = new ArrayList<>(targetNode.visibleBuildings3d);
-
-		if (distantLandmarks.isEmpty())
-			return 0.0;
-
-		// get the anchors of the destination
-		List<Building> anchors = new ArrayList<>(LandmarkIntegration.getAnchors(destinationNode).getArray());
-		double nodeGlobalScore = 0.0;
-		double targetDistance = GraphUtils.getCachedNodesDistance(targetNode, destinationNode);
-		for (Building landmark : distantLandmarks) {
-			if (!anchors.isEmpty() && !anchors.contains(landmark))
-				continue;
-
-			double score = landmark.attributes.get("globalLandmarkness").getDouble();
-			ArrayList<Double> distances = new ArrayList<>(LandmarkIntegration.getDistances(destinationNode).getArray());
-			double distanceLandmark = distances.get(anchors.indexOf(landmark));
-			double distanceWeight = Math.min(targetDistance / distanceLandmark, 1.0);
-			score *= distanceWeight;
-
-			if (anchors.isEmpty())
-				score *= 0.90;
-			nodeGlobalScore = Math.max(nodeGlobalScore, score);
-		}
-		return nodeGlobalScore;
+		return GlobalLandmarkness.getScore(targetNode, destinationNode);
 	}
 
 	/**
@@ -437,13 +450,25 @@ public class LandmarkNavigation {
 	 */
 	public static double globalLandmarknessDualNode(NodeGraph centroid, NodeGraph targetCentroid,
 			NodeGraph destinationNode) {
+		return globalLandmarknessNode(getPrimalTargetNode(centroid, targetCentroid), destinationNode);
+	}
+
+	/**
+	 * Identifies the primal node reached when moving from a centroid to a target
+	 * centroid, namely the node of the target street segment that is not shared
+	 * with the current one.
+	 *
+	 * @param centroid       The current centroid node.
+	 * @param targetCentroid The target centroid node.
+	 * @return The primal node reached through the target street segment.
+	 */
+	public static NodeGraph getPrimalTargetNode(NodeGraph centroid, NodeGraph targetCentroid) {
 
 		// current real segment: identifying the node
 		DirectedEdge streetSegment = targetCentroid.getPrimalEdge().getDirEdge(0);
 		NodeGraph targetNode = (NodeGraph) streetSegment.getToNode(); // targetNode
 		if (GraphUtils.getPrimalJunction(centroid, targetCentroid).equals(targetNode))
 			targetNode = (NodeGraph) streetSegment.getFromNode();
-
-		return globalLandmarknessNode(targetNode, destinationNode);
+		return targetNode;
 	}
 }
@@ -1,7 +1,6 @@
 package pedSim.routeChoice;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -9,8 +8,8 @@ import org.locationtech.jts.planargraph.DirectedEdge;
 
 import pedSim.agents.Agent;
 import pedSim.cognitiveMap.CommunityCognitiveMap;
-import pedSim.dijkstra.DijkstraAngularChange;
-import pedSim.dijkstra.DijkstraRoadDistance;
+import pedSim.dijkstra.EdgesToAvoid;
+import pedSim.dijkstra.ShortestPathTrees;
 import sim.graph.EdgeGraph;
 import sim.graph.Graph;
 import sim.graph.NodeGraph;
@@ -31,9 +30,12 @@ public class PathFinder {
 	NodeGraph previousJunction = null;
 
 	List<NodeGraph> sequenceNodes = new ArrayList<>();
-	// need order here, that's why it's not hashset
-	List<NodeGraph> centroidsToAvoid = new ArrayList<>();
-	Set<DirectedEdge> directedEdgesToAvoid = new HashSet<>();
+	// the edges of completeSequence, avoided both as segments and as centroids
+	EdgesToAvoid edgesToAvoid = new EdgesToAvoid();
+	// number of edges of completeSequence already in edgesToAvoid
+	private int edgesAvoided = 0;
+	// shortest-path trees computed during this route planning
+	ShortestPathTrees trees = new ShortestPathTrees();
 
 	List<DirectedEdge> completeSequence = new ArrayList<>();
 	List<DirectedEdge> partialSequence = new ArrayList<>();
@@ -54,6 +56,7 @@ public class PathFinder {
 	 */
 	protected void backtracking(NodeGraph tmpDestination) {
 
+		agent.getMetrics().recordBacktracking(agent);
 		if (tmpOrigin.equals(originNode)) {
 			// try skipping this tmpDestination
 			moveOn = true;
@@ -72,10 +75,31 @@ public class PathFinder {
 		}
 
 		// If not, try to compute the path from the new tmpOrigin
-		final DijkstraRoadDistance pathFinder = new DijkstraRoadDistance();
-		directedEdgesToAvoid = new HashSet<>(completeSequence);
-		partialSequence = pathFinder.dijkstraAlgorithm(tmpOrigin, tmpDestination, destinationNode, directedEdgesToAvoid,
-				agent);
+		partialSequence = trees.roadDistance(tmpOrigin, tmpDestination, destinationNode, updateEdgesToAvoid(), agent);
+	}
+
+	/**
+	 * Brings the edges to avoid up to date with the complete sequence. Edges
+	 * appended to the complete sequence since the last update are added to the
+	 * set; when edges have been removed from the sequence, the set is rebuilt.
+	 *
+	 * @return The edges of the complete sequence.
+	 */
+	protected EdgesToAvoid updateEdgesToAvoid() {
+		if (edgesAvoided > completeSequence.size())
+			resetEdgesToAvoid();
+		edgesToAvoid.addAll(completeSequence, edgesAvoided);
+		edgesAvoided = completeSequence.size();
+		return edgesToAvoid;
+	}
+
+	/**
+	 * Empties the edges to avoid, after edges have been removed from the complete
+	 * sequence.
+	 */
+	protected void resetEdgesToAvoid() {
+		edgesToAvoid.clear();
+		edgesAvoided = 0;
 	}
 
 	/**
@@ -94,15 +118,17 @@ public class PathFinder {
 			completeSequence.remove(completeSequence.size() - 1);
 			tmpOrigin = (NodeGraph) completeSequence.get(completeSequence.size() - 1).getToNode();
 		}
+		resetEdgesToAvoid();
 	}
 
 	/**
 	 * Performs backtracking in the context of dual graph-based pathfinding (angular
-	 * change). When the agent gets stuck due to the "centroidsToAvoid" set, this
+	 * change). When the agent gets stuck due to the centroids to avoid, this
 	 * method iterates back across nodes and retries to compute the path towards the
 	 * given tmpDestinationNode.
 	 */
 	protected void dualBacktracking() {
+		agent.getMetrics().recordBacktracking(agent);
 		// new tmpOrigin
 		try {
 			tmpOrigin = (NodeGraph) completeSequence.get(completeSequence.size() - 1).getFromNode();
@@ -113,7 +139,7 @@ public class PathFinder {
 
 		// remove last one which did not work!
 		completeSequence.remove(completeSequence.size() - 1);
-		centroidsToAvoid.remove(centroidsToAvoid.size() - 1);
+		resetEdgesToAvoid();
 		// take new previous junction
 		previousJunction = RoutingUtils.getPreviousJunction(completeSequence);
 		// check if there's a segment between the new tmpOrigin and the destination
@@ -130,10 +156,8 @@ public class PathFinder {
 		List<NodeGraph> dualNodesDestination = getDualNodes(tmpDestination, previousJunction);
 		for (final NodeGraph tmpDualOrigin : dualNodesOrigin) {
 			for (final NodeGraph tmpDualDestination : dualNodesDestination) {
-				final DijkstraAngularChange pathfinder = new DijkstraAngularChange();
-				Set<NodeGraph> centroidsToAvoidSet = new HashSet<>(centroidsToAvoid);
-				partialSequence = pathfinder.dijkstraAlgorithm(tmpDualOrigin, tmpDualDestination, destinationNode,
-						centroidsToAvoidSet, tmpOrigin, agent);
+				partialSequence = trees.angularChange(tmpDualOrigin, tmpDualDestination, destinationNode,
+						updateEdgesToAvoid(), tmpOrigin, agent);
 				if (!partialSequence.isEmpty())
 					break;
 			}
@@ -171,6 +195,7 @@ public class PathFinder {
 				completeSequence = new ArrayList<>(completeSequence.subList(0, lastIndex + 1));
 				if (RoutingUtils.getPreviousJunction(completeSequence).equals(destinationNode))
 					completeSequence.remove(completeSequence.size() - 1);
+				resetEdgesToAvoid();
 				return;
 			}
 	}
@@ -2,25 +2,22 @@ package pedSim.routeChoice;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.javatuples.Pair;
 
 import pedSim.agents.Agent;
 import pedSim.cognitiveMap.Gateway;
 import pedSim.cognitiveMap.Region;
+import pedSim.cognitiveMap.RegionsGraph;
 import pedSim.engine.PedSimCity;
 import sim.graph.EdgeGraph;
 import sim.graph.GraphUtils;
 import sim.graph.NodeGraph;
 import sim.util.geo.Angles;
-import sim.util.geo.Utilities;
 
 /**
  * Series of functions for computing a sequence of region-gateways between the
@@ -37,10 +34,7 @@ public class RegionBasedNavigation {
 	NodeGraph originNode, destinationNode, currentNode, previousNode;
 	int currentRegionID, specificRegionID, targetRegionID;
 	boolean finalRegion = false;
-	Map<Integer, EdgeGraph> edgesMap;
 	Map<Pair<NodeGraph, NodeGraph>, Gateway> gatewaysMap = new HashMap<Pair<NodeGraph, NodeGraph>, Gateway>();
-	Map<Pair<NodeGraph, NodeGraph>, Double> validGateways;
-	Map<Pair<NodeGraph, NodeGraph>, Double> otherGateways;
 
 	private Agent agent;
 	private Map<Integer, Region> regionsMap;
@@ -57,7 +51,7 @@ public class RegionBasedNavigation {
 		this.originNode = originNode;
 		this.destinationNode = destinationNode;
 		this.agent = agent;
-		this.regionsMap = new HashMap<>(PedSimCity.regionsMap);
+		this.regionsMap = PedSimCity.regionsMap;
 	}
 
 	/**
@@ -99,7 +93,6 @@ public class RegionBasedNavigation {
 	 * Initialises the sequence of nodes and regions for navigation.
 	 */
 	private void initializeSequence() {
-		this.edgesMap = PedSimCity.edgesMap;
 		this.gatewaysMap = PedSimCity.gatewaysMap;
 		currentNode = originNode;
 		currentRegionID = originNode.getRegionID();
@@ -165,6 +158,10 @@ public class RegionBasedNavigation {
 	 * Identifies the next gateway (exit and entry nodes) towards the best region
 	 * for the current location and region.
 	 *
+	 * Gateways are scored in a single sequential pass over the region's gateways,
+	 * keeping track of the best valid gateway and of the best gateway amongst the
+	 * other (fallback) ones.
+	 *
 	 * @param currentNode      The current node.
 	 * @param currentRegion    The current region.
 	 * @param specificRegionID A desired region (optional).
@@ -173,36 +170,72 @@ public class RegionBasedNavigation {
 	private Pair<NodeGraph, NodeGraph> findNextGateway(NodeGraph currentNode, int currentRegion, int specificRegionID) {
 
 		// retrieve current region's exits
-		List<Gateway> possibleGateways = regionsMap.get(currentRegion).gateways;
-		validGateways = new ConcurrentHashMap<>();
-		otherGateways = new ConcurrentHashMap<>();
+		Region region = regionsMap.get(currentRegion);
+		Gateway[] gateways = region.gatewaysArray;
+		// dead ends are skipped only when the target region can be reached at all;
+		// otherwise, the best gateway is picked as usual
+		boolean skipDeadEnds = specificRegionID == -1 && RegionsGraph.isReachable(currentRegion, targetRegionID);
 
 		// check compliance with criteria
 		double destinationAngle = Angles.angle(currentNode, destinationNode);
 		double distanceTarget = GraphUtils.nodesDistance(currentNode, destinationNode);
 
-		possibleGateways.parallelStream().forEach(gateway -> {
-			if (isGatewayValid(gateway, specificRegionID)) {
-				evaluateGateway(gateway, destinationAngle, distanceTarget, currentNode);
-			}
-		});
+		int bestValid = -1;
+		int bestOther = -1;
+		double bestValidCost = Double.MAX_VALUE;
+		double bestOtherCost = Double.MAX_VALUE;
 
-		if (validGateways.isEmpty() && specificRegionID != -1)
-			return null;
-		if (validGateways.isEmpty())
-			validGateways = otherGateways;
-		if (validGateways.isEmpty())
-			return null;
+		for (int i = 0; i < gateways.length; i++) {
+			Gateway gateway = gateways[i];
+			if (!isGatewayValid(gateway, specificRegionID, skipDeadEnds))
+				continue;
 
-		// sort the valid gates, rewarding the ones with the lowest deviation towards
-		// the destination
-		Map<Pair<NodeGraph, NodeGraph>, Double> validSorted = (LinkedHashMap<Pair<NodeGraph, NodeGraph>, Double>) Utilities
-				.sortByValue(validGateways, false);
+			double locationExitAngle = Angles.angle(currentNode, gateway.exit);
+			double exitEntryAngle = gateway.entryAngle;
+			double exitDestintionAngle = Angles.angle(gateway.exit, destinationNode);
+			double differenceExitEntry = Angles.differenceAngles(locationExitAngle, exitDestintionAngle);
+			double distanceFromGate = GraphUtils.nodesDistance(currentNode, gateway.exit);
+
+			boolean entryInDirection = Angles.isInDirection(destinationAngle, exitEntryAngle, 140.0);
+			boolean exitInDirection = Angles.isInDirection(destinationAngle, locationExitAngle, 140.0);
+			boolean notInDirection = (distanceFromGate > distanceTarget || !exitInDirection || !entryInDirection);
+			boolean currentExit = isCurrentExit(gateway);
+
+			double cost;
+			// criteria are not met
+			if (currentExit && !entryInDirection) {
+				cost = Angles.differenceAngles(exitEntryAngle, destinationAngle);
+				if (cost < bestOtherCost) {
+					bestOtherCost = cost;
+					bestOther = i;
+				}
+			} else if (!currentExit && notInDirection) {
+				cost = Angles.differenceAngles(locationExitAngle, destinationAngle);
+				if (cost <= 90) {
+					cost += differenceExitEntry;
+					if (cost < bestOtherCost) {
+						bestOtherCost = cost;
+						bestOther = i;
+					}
+				}
+			} else {
+				if (currentExit)
+					cost = Angles.differenceAngles(exitEntryAngle, destinationAngle);
+				else
+					cost = Angles.differenceAngles(locationExitAngle, destinationAngle) + differenceExitEntry;
+				if (cost < bestValidCost) {
+					bestValidCost = cost;
+					bestValid = i;
+				}
+			}
+		}
 
-		// return the first gateway pair
-		for (Entry<Pair<NodeGraph, NodeGraph>, Double> gatewaysPair : validSorted.entrySet())
-			return gatewaysPair.getKey();
-		return null;
+		// rewarding the gateways with the lowest deviation towards the destination
+		if (bestValid != -1)
+			return gateways[bestValid].gatewayID;
+		if (specificRegionID != -1 || bestOther == -1)
+			return null;
+		return gateways[bestOther].gatewayID;
 	}
 
 	/**
@@ -211,52 +244,25 @@ public class RegionBasedNavigation {
 	 * @param gateway          The gateway to be checked for validity.
 	 * @param specificRegionID The specific region ID to which the gateway should
 	 *                         belong, or -1 if any region is acceptable.
+	 * @param skipDeadEnds     Whether gateways towards regions from which the
+	 *                         target region cannot be reached are invalid.
 	 * @return True if the gateway is valid based on the specified conditions,
 	 *         otherwise false.
 	 */
-	private boolean isGatewayValid(Gateway gateway, int specificRegionID) {
+	private boolean isGatewayValid(Gateway gateway, int specificRegionID, boolean skipDeadEnds) {
 		if (badExits.contains(gateway.gatewayID))
 			return false;
 		if (specificRegionID != -1 && specificRegionID != gateway.regionTo)
 			return false;
 		if (visitedRegions.contains(gateway.regionTo))
 			return false;
+		// dead ends: the target region cannot be reached through the gateway
+		if (skipDeadEnds && !RegionsGraph.isReachable(gateway.regionTo, targetRegionID))
+			return false;
 		else
 			return true;
 	}
 
-	/**
-	 * Evaluates the given gateway based on the criteria.
-	 *
-	 * @param gateway          The gateway being evaluated.
-	 * @param destinationAngle The angle towards the destination.
-	 * @param distanceTarget   The distance to the target.
-	 * @param currentNode      The current node in the navigation process.
-	 */
-	private void evaluateGateway(Gateway gateway, double destinationAngle, double distanceTarget,
-			NodeGraph currentNode) {
-
-		double locationExitAngle = Angles.angle(currentNode, gateway.exit);
-		double exitEntryAngle = gateway.entryAngle;
-		double exitDestintionAngle = Angles.angle(gateway.exit, destinationNode);
-		double differenceExitEntry = Angles.differenceAngles(locationExitAngle, exitDestintionAngle);
-		double distanceFromGate = GraphUtils.nodesDistance(currentNode, gateway.exit);
-
-		double cost = 0.0;
-		boolean entryInDirection = Angles.isInDirection(destinationAngle, exitEntryAngle, 140.0);
-		boolean exitInDirection = Angles.isInDirection(destinationAngle, locationExitAngle, 140.0);
-		boolean notInDirection = (distanceFromGate > distanceTarget || !exitInDirection || !entryInDirection);
-		// criteria are not met
-		if (isCurrentExit(gateway) && !entryInDirection) {
-			cost = Angles.differenceAngles(exitEntryAngle, destinationAngle);
-			otherGateways.put(gateway.gatewayID, cost);
-		} else if (!isCurrentExit(gateway) && notInDirection)
-			addInvalidGateway(gateway, locationExitAngle, destinationAngle, differenceExitEntry);
-		else
-			addValidGateway(gateway, locationExitAngle, destinationAngle, differenceExitEntry);
-
-	}
-
 	/**
 	 * Checks if the given gateway's exit matches the current node in the
 	 * navigation.
@@ -268,43 +274,6 @@ public class RegionBasedNavigation {
 		return gateway.exit.equals(currentNode);
 	}
 
-	/**
-	 * Adds the given gateway to the 'otherGateways' collection based on certain
-	 * criteria.
-	 *
-	 * @param gateway             The gateway to be added.
-	 * @param locationExitAngle   The angle of the exit location.
-	 * @param destinationAngle    The angle towards the destination.
-	 * @param differenceExitEntry The difference between exit and entry angles.
-	 */
-	private void addInvalidGateway(Gateway gateway, double locationExitAngle, double destinationAngle,
-			double differenceExitEntry) {
-		double cost = Angles.differenceAngles(locationExitAngle, destinationAngle);
-		if (cost <= 90) {
-			cost += differenceExitEntry;
-			otherGateways.put(gateway.gatewayID, cost);
-		}
-	}
-
-	/**
-	 * Adds a valid gateway based on specific angles and differences, storing it in
-	 * 'validGateways'.
-	 *
-	 * @param gateway             The gateway being evaluated.
-	 * @param locationExitAngle   The angle of the exit location.
-	 * @param destinationAngle    The angle towards the destination.
-	 * @param differenceExitEntry The difference between exit and entry angles.
-	 */
-	private void addValidGateway(Gateway gateway, double locationExitAngle, double destinationAngle,
-			double differenceExitEntry) {
-		double cost;
-		if (isCurrentExit(gateway))
-			cost = Angles.differenceAngles(gateway.entryAngle, destinationAngle);
-		else
-			cost = Angles.differenceAngles(locationExitAngle, destinationAngle) + differenceExitEntry;
-		validGateways.put(gateway.gatewayID, cost);
-	}
-
 	/**
 	 * Identifies barriers within the regions traversed and inserts barrier
 	 * sub-goals into the sequence of gateways when applicable.
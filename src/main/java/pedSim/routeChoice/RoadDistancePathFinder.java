@@ -1,7 +1,6 @@
 package pedSim.routeChoice;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 
 import pedSim.agents.Agent;
@@ -27,9 +26,12 @@ public class RoadDistancePathFinder extends PathFinder {
 
 		this.agent = agent;
 		agentNetwork = agent.getCognitiveMap().getKnownNetwork();
-		final DijkstraRoadDistance pathfinder = new DijkstraRoadDistance();
-		partialSequence = pathfinder.dijkstraAlgorithm(originNode, destinationNode, destinationNode,
-				directedEdgesToAvoid, agent);
+		// possibly planned in advance, see BatchPlanner
+		partialSequence = agent.removePlannedSequence(agent.tripsDone);
+		if (partialSequence == null) {
+			final DijkstraRoadDistance pathfinder = new DijkstraRoadDistance();
+			partialSequence = pathfinder.dijkstraAlgorithm(originNode, destinationNode, destinationNode, null, agent);
+		}
 		route.directedEdgesSequence = partialSequence;
 		route.routeSequences();
 		return route;
@@ -74,10 +76,8 @@ public class RoadDistancePathFinder extends PathFinder {
 			if (haveEdgesBetween())
 				continue;
 
-			directedEdgesToAvoid = new HashSet<>(completeSequence);
-			DijkstraRoadDistance pathfinder = new DijkstraRoadDistance();
-			partialSequence = pathfinder.dijkstraAlgorithm(tmpOrigin, tmpDestination, destinationNode,
-					directedEdgesToAvoid, agent);
+			partialSequence = trees.roadDistance(tmpOrigin, tmpDestination, destinationNode, updateEdgesToAvoid(),
+					agent);
 			while (partialSequence.isEmpty() && !moveOn)
 				backtracking(tmpDestination);
 
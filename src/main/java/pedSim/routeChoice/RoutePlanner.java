@@ -5,6 +5,9 @@ import java.util.List;
 
 import pedSim.agents.Agent;
 import pedSim.agents.AgentProperties;
+import pedSim.engine.FlightEvents;
+import pedSim.engine.FlightEvents.RoutePlanningEvent;
+import pedSim.engine.Metrics;
 import pedSim.engine.Parameters;
 import sim.graph.GraphUtils;
 import sim.graph.NodeGraph;
@@ -22,6 +25,9 @@ public class RoutePlanner {
 	private AgentProperties agentProperties;
 	private List<NodeGraph> sequenceNodes;
 	private Agent agent;
+	// the sub-goals and the path finding strategies used, for the flight recorder
+	private String subGoalsStrategy = "";
+	private String pathStrategy = "";
 
 	/**
 	 * Constructs a `RoutePlanner` instance for calculating a route.
@@ -47,11 +53,35 @@ public class RoutePlanner {
 	 */
 	public Route definePath() throws Exception {
 
+		RoutePlanningEvent event = FlightEvents.beginRoutePlanning();
+		Route route = planPath();
+		if (event != null) {
+			event.origin = originNode.getID();
+			event.destination = destinationNode.getID();
+			event.routeChoice = Metrics.getGroupName(agent);
+			event.strategy = subGoalsStrategy.isEmpty() ? pathStrategy : subGoalsStrategy + " - " + pathStrategy;
+			event.legs = Math.max(1, sequenceNodes.size() - 1);
+			FlightEvents.commit(event);
+		}
+		return route;
+	}
+
+	/**
+	 * Plans the path, identifying the sub-goals (if any) and the path between
+	 * them, on the basis of the agent's route choice properties.
+	 *
+	 * @return A `Route` object representing the calculated route.
+	 * @throws Exception
+	 */
+	private Route planPath() throws Exception {
+
 		if (shouldUseMinimization()) {
 			if (agentProperties.minimisingDistance) {
+				pathStrategy = "road distance";
 				RoadDistancePathFinder finder = new RoadDistancePathFinder();
 				return finder.roadDistance(originNode, destinationNode, agent);
 			} else {
+				pathStrategy = "angular change";
 				AngularChangePathFinder finder = new AngularChangePathFinder();
 				return finder.angularChangeBased(originNode, destinationNode, agent);
 			}
@@ -63,6 +93,7 @@ public class RoutePlanner {
 		if (isRegionBasedNavigation()) {
 			RegionBasedNavigation regionsPath = new RegionBasedNavigation(originNode, destinationNode, agent);
 			sequenceNodes = regionsPath.sequenceRegions();
+			subGoalsStrategy = "regions";
 		}
 
 		/**
@@ -71,6 +102,7 @@ public class RoutePlanner {
 		if (agentProperties.barrierBasedNavigation && !isRegionBasedNavigation()) {
 			BarrierBasedNavigation barriersPath = new BarrierBasedNavigation(originNode, destinationNode, agent, false);
 			sequenceNodes = barriersPath.sequenceBarriers();
+			subGoalsStrategy = "barriers";
 		}
 
 		/**
@@ -78,10 +110,13 @@ public class RoutePlanner {
 		 */
 		else if (agentProperties.usingLocalLandmarks) {
 			LandmarkNavigation landmarkNavigation = new LandmarkNavigation(originNode, destinationNode, agent);
-			if (isRegionBasedNavigation() && !sequenceNodes.isEmpty())
+			if (isRegionBasedNavigation() && !sequenceNodes.isEmpty()) {
 				sequenceNodes = landmarkNavigation.regionOnRouteMarks(sequenceNodes);
-			else
+				subGoalsStrategy = "regions, local landmarks";
+			} else {
 				sequenceNodes = landmarkNavigation.onRouteMarks();
+				subGoalsStrategy = "local landmarks";
+			}
 		}
 
 		/**
@@ -92,14 +127,17 @@ public class RoutePlanner {
 		 * global-landmarks maximisation path
 		 */
 		else if (agentProperties.usingDistantLandmarks && !shouldUseLocalHeuristic()) {
+			pathStrategy = "global landmarks";
 			GlobalLandmarksPathFinder finder = new GlobalLandmarksPathFinder();
-			if (!sequenceNodes.isEmpty())
+			if (!sequenceNodes.isEmpty()) {
+				recordSubGoals();
 				return finder.globalLandmarksPathSequence(sequenceNodes, agent);
-			else {
+			} else {
 				return finder.globalLandmarksPath(originNode, destinationNode, agent);
 			}
 		}
 
+		pathStrategy = agentProperties.localHeuristicDistance ? "road distance" : "angular change";
 		if (sequenceNodes.isEmpty()) {
 			if (agentProperties.localHeuristicDistance) {
 				RoadDistancePathFinder finder = new RoadDistancePathFinder();
@@ -110,6 +148,7 @@ public class RoutePlanner {
 			}
 		}
 
+		recordSubGoals();
 		if (agentProperties.localHeuristicDistance) {
 			RoadDistancePathFinder finder = new RoadDistancePathFinder();
 			return finder.roadDistanceSequence(sequenceNodes, agent);
@@ -119,6 +158,14 @@ public class RoutePlanner {
 		}
 	}
 
+	/**
+	 * Records the number of sub-goals in the sequence, which also contains the
+	 * origin and the destination nodes.
+	 */
+	private void recordSubGoals() {
+		agent.getMetrics().recordSubGoals(agent, Math.max(0, sequenceNodes.size() - 2));
+	}
+
 	/**
 	 * Checks if the agent should use minimization for route planning.
 	 *
@@ -0,0 +1,246 @@
+package pedSim.utilities;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed set of non-negative ints, in the manner of Roaring bitmaps: the
+ * values are partitioned by their 16 high bits into containers, each storing
+ * the 16 low bits of its values either as a sorted array, when sparse (up to
+ * 4096 values), or as a bitmap of 1024 words, when dense. Sparse sets take a
+ * few bytes per value, and intersections are computed container by container,
+ * with word operations between bitmaps.
+ */
+public class CompressedBitSet {
+
+	private static final int ARRAY_LIMIT = 4096;
+	private static final int BITMAP_WORDS = 1 << 10;
+	private static final char[] NO_KEYS = new char[0];
+
+	// sorted high bits of the containers' values
+	private char[] keys = NO_KEYS;
+	// container -> sorted low bits (char[]) or bitmap (long[])
+	private Object[] containers = new Object[0];
+	// container -> number of values
+	private int[] cardinalities = new int[0];
+	private int size = 0;
+
+	/**
+	 * Adds a value to the set.
+	 *
+	 * @param value The value, non-negative.
+	 * @return True if the value was not in the set; otherwise, false.
+	 */
+	public boolean add(int value) {
+
+		char key = (char) (value >>> 16);
+		char low = (char) value;
+		int container = Arrays.binarySearch(keys, 0, size, key);
+		if (container < 0) {
+			container = -container - 1;
+			insertContainer(container, key);
+		}
+
+		if (containers[container] instanceof long[]) {
+			long[] bitmap = (long[]) containers[container];
+			long word = bitmap[low >>> 6];
+			long bit = 1L << low;
+			if ((word & bit) != 0)
+				return false;
+			bitmap[low >>> 6] = word | bit;
+			cardinalities[container]++;
+			return true;
+		}
+
+		char[] array = (char[]) containers[container];
+		int cardinality = cardinalities[container];
+		int position = Arrays.binarySearch(array, 0, cardinality, low);
+		if (position >= 0)
+			return false;
+		position = -position - 1;
+
+		if (cardinality == ARRAY_LIMIT) {
+			long[] bitmap = new long[BITMAP_WORDS];
+			for (int i = 0; i < cardinality; i++)
+				bitmap[array[i] >>> 6] |= 1L << array[i];
+			bitmap[low >>> 6] |= 1L << low;
+			containers[container] = bitmap;
+		} else {
+			if (cardinality == array.length)
+				array = Arrays.copyOf(array, Math.min(ARRAY_LIMIT, Math.max(4, cardinality * 2)));
+			System.arraycopy(array, position, array, position + 1, cardinality - position);
+			array[position] = low;
+			containers[container] = array;
+		}
+		cardinalities[container]++;
+		return true;
+	}
+
+	/**
+	 * Checks whether the set contains the given value.
+	 *
+	 * @param value The value.
+	 * @return True if the value is in the set; otherwise, false.
+	 */
+	public boolean contains(int value) {
+
+		if (value < 0)
+			return false;
+		int container = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+		if (container < 0)
+			return false;
+		char low = (char) value;
+		if (containers[container] instanceof long[])
+			return (((long[]) containers[container])[low >>> 6] & (1L << low)) != 0;
+		return Arrays.binarySearch((char[]) containers[container], 0, cardinalities[container], low) >= 0;
+	}
+
+	/**
+	 * Returns the number of values in the set.
+	 *
+	 * @return The cardinality.
+	 */
+	public int cardinality() {
+		int cardinality = 0;
+		for (int container = 0; container < size; container++)
+			cardinality += cardinalities[container];
+		return cardinality;
+	}
+
+	/**
+	 * Checks whether the set is empty.
+	 *
+	 * @return True if the set has no values; otherwise, false.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Performs the given action on each value, in ascending order.
+	 *
+	 * @param action The action.
+	 */
+	public void forEach(IntConsumer action) {
+
+		for (int container = 0; container < size; container++) {
+			int high = keys[container] << 16;
+			if (containers[container] instanceof long[])
+				forEachBit((long[]) containers[container], null, high, action);
+			else {
+				char[] array = (char[]) containers[container];
+				for (int i = 0; i < cardinalities[container]; i++)
+					action.accept(high | array[i]);
+			}
+		}
+	}
+
+	/**
+	 * Performs the given action on each value contained in both this set and the
+	 * other one, in ascending order, without materialising the intersection.
+	 *
+	 * @param other  The other set.
+	 * @param action The action.
+	 */
+	public void andForEach(CompressedBitSet other, IntConsumer action) {
+
+		int i = 0;
+		int j = 0;
+		while (i < size && j < other.size) {
+			if (keys[i] < other.keys[j])
+				i++;
+			else if (keys[i] > other.keys[j])
+				j++;
+			else {
+				andContainers(containers[i], cardinalities[i], other.containers[j], other.cardinalities[j],
+						keys[i] << 16, action);
+				i++;
+				j++;
+			}
+		}
+	}
+
+	/**
+	 * Releases the unused capacity of the sparse containers. It should be called
+	 * once the set has been built.
+	 */
+	public void trim() {
+
+		keys = Arrays.copyOf(keys, size);
+		containers = Arrays.copyOf(containers, size);
+		cardinalities = Arrays.copyOf(cardinalities, size);
+		for (int container = 0; container < size; container++)
+			if (containers[container] instanceof char[])
+				containers[container] = Arrays.copyOf((char[]) containers[container], cardinalities[container]);
+	}
+
+	/**
+	 * Inserts an empty sparse container with the given key at the given position.
+	 */
+	private void insertContainer(int position, char key) {
+
+		if (size == keys.length) {
+			int capacity = Math.max(1, size * 2);
+			keys = Arrays.copyOf(keys, capacity);
+			containers = Arrays.copyOf(containers, capacity);
+			cardinalities = Arrays.copyOf(cardinalities, capacity);
+		}
+		System.arraycopy(keys, position, keys, position + 1, size - position);
+		System.arraycopy(containers, position, containers, position + 1, size - position);
+		System.arraycopy(cardinalities, position, cardinalities, position + 1, size - position);
+		keys[position] = key;
+		containers[position] = new char[4];
+		cardinalities[position] = 0;
+		size++;
+	}
+
+	/**
+	 * Performs the action on the values contained in both the containers, whose
+	 * values share the given high bits.
+	 */
+	private static void andContainers(Object first, int firstCardinality, Object second, int secondCardinality,
+			int high, IntConsumer action) {
+
+		if (first instanceof long[] && second instanceof long[])
+			forEachBit((long[]) first, (long[]) second, high, action);
+		else if (first instanceof long[] || second instanceof long[]) {
+			long[] bitmap = (long[]) (first instanceof long[] ? first : second);
+			char[] array = (char[]) (first instanceof long[] ? second : first);
+			int cardinality = first instanceof long[] ? secondCardinality : firstCardinality;
+			for (int i = 0; i < cardinality; i++)
+				if ((bitmap[array[i] >>> 6] & (1L << array[i])) != 0)
+					action.accept(high | array[i]);
+		} else {
+			char[] firstArray = (char[]) first;
+			char[] secondArray = (char[]) second;
+			int i = 0;
+			int j = 0;
+			while (i < firstCardinality && j < secondCardinality) {
+				if (firstArray[i] < secondArray[j])
+					i++;
+				else if (firstArray[i] > secondArray[j])
+					j++;
+				else {
+					action.accept(high | firstArray[i]);
+					i++;
+					j++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Performs the action on the bits set in the bitmap, or in both the bitmaps
+	 * when a mask is passed.
+	 */
+	private static void forEachBit(long[] bitmap, long[] mask, int high, IntConsumer action) {
+
+		for (int word = 0; word < BITMAP_WORDS; word++) {
+			long bits = mask == null ? bitmap[word] : bitmap[word] & mask[word];
+			while (bits != 0) {
+				action.accept(high | (word << 6) | Long.numberOfTrailingZeros(bits));
+				bits &= bits - 1;
+			}
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package pedSim.utilities;
+
+import ec.util.MersenneTwisterFast;
+
+/**
+ * Draws of random values from distributions, taking the generator to draw
+ * from, so that the values drawn during a simulation depend on its seed only.
+ */
+public class Distributions {
+
+	/**
+	 * Draws a value from a normal distribution, as GeoMason-light's
+	 * {@code Utilities.fromDistribution}, but from the given generator. Values
+	 * on the side of the mean opposite to the given direction, and non-positive
+	 * values, are replaced by the mean.
+	 *
+	 * @param random    The random number generator.
+	 * @param mean      The mean of the distribution.
+	 * @param sd        The standard deviation of the distribution.
+	 * @param direction The side of the mean to keep, "left" (lower values) or
+	 *                  "right" (higher values); null to keep both.
+	 * @return The value drawn.
+	 */
+	public static double fromDistribution(MersenneTwisterFast random, double mean, double sd, String direction) {
+
+		double result = random.nextGaussian() * sd + mean;
+		if (direction != null) {
+			if (direction.equals("left") && result > mean)
+				result = mean;
+			if (direction.equals("right") && result < mean)
+				result = mean;
+		}
+		if (result <= 0.00)
+			result = mean;
+		return result;
+	}
+}
@@ -0,0 +1,102 @@
+package pedSim.utilities;
+
+/**
+ * A histogram of non-negative long values with log-linear buckets, in the
+ * manner of HdrHistogram: values below 32 are counted exactly, larger values
+ * in 16 buckets per power of two, hence with a relative error below 6.25%. It
+ * records values in constant time and memory, without storing them.
+ */
+public class Histogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int EXACT_LIMIT = SUB_BUCKETS * 2;
+
+	private final long[] counts = new long[(65 - SUB_BUCKET_BITS) * SUB_BUCKETS];
+	private long totalCount = 0;
+	private long sum = 0;
+	private long max = 0;
+
+	/**
+	 * Records a value.
+	 *
+	 * @param value The value, non-negative (negative values are recorded as 0).
+	 */
+	public void record(long value) {
+		value = Math.max(0, value);
+		counts[bucketIndex(value)]++;
+		totalCount++;
+		sum += value;
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * Returns the number of recorded values.
+	 *
+	 * @return The count.
+	 */
+	public long getCount() {
+		return totalCount;
+	}
+
+	/**
+	 * Returns the mean of the recorded values.
+	 *
+	 * @return The mean, or 0 if no value has been recorded.
+	 */
+	public double getMean() {
+		return totalCount == 0 ? 0.0 : (double) sum / totalCount;
+	}
+
+	/**
+	 * Returns the largest recorded value.
+	 *
+	 * @return The maximum, or 0 if no value has been recorded.
+	 */
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * Returns the value below which the given percentage of the recorded values
+	 * fall, as the upper bound of the bucket containing it.
+	 *
+	 * @param percentile The percentile, between 0 and 100.
+	 * @return The value at the percentile, or 0 if no value has been recorded.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (totalCount == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+		long cumulative = 0;
+		for (int index = 0; index < counts.length; index++) {
+			cumulative += counts[index];
+			if (cumulative >= rank)
+				return Math.min(max, bucketUpperBound(index));
+		}
+		return max;
+	}
+
+	/**
+	 * Returns the index of the bucket containing the value.
+	 */
+	private static int bucketIndex(long value) {
+		if (value < EXACT_LIMIT)
+			return (int) value;
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	/**
+	 * Returns the largest value falling in the bucket with the given index.
+	 */
+	private static long bucketUpperBound(int index) {
+		if (index < EXACT_LIMIT)
+			return index;
+		int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long subBucket = index % SUB_BUCKETS;
+		long width = 1L << (exponent - SUB_BUCKET_BITS);
+		return (1L << exponent) + (subBucket + 1) * width - 1;
+	}
+}
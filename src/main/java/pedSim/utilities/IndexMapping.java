@@ -0,0 +1,191 @@
+package pedSim.utilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Maps the elements of a layer (nodes, edges, buildings, etc.), identified by
+ * the IDs read from the shapefiles, to dense indices 0..n-1, assigned in
+ * ascending order of ID. The elements and their original IDs are stored in
+ * arrays by index, so that per-element data can be stored in arrays of size n,
+ * whatever the range of the IDs, while the original IDs remain available for
+ * the output. Original IDs are resolved to indices in constant time, without
+ * boxing: through a lookup table spanning the IDs' range when the IDs are
+ * compact enough, or else through an open-addressing hash table of indices.
+ *
+ * @param <T> The type of the elements.
+ */
+public class IndexMapping<T> implements Iterable<T> {
+
+	private static final int ABSENT = -1;
+	// the lookup table is used when the IDs' range is at most this many times n
+	private static final int MAX_TABLE_SPREAD = 4;
+
+	// index -> element
+	private final List<T> elements;
+	// index -> original ID, ascending
+	private final int[] originalIDs;
+	// original ID - minID -> index, ABSENT if no element has the ID; null when
+	// the IDs are too sparse
+	private final int[] indices;
+	private final int minID;
+	// sparse IDs: hash slot -> index, ABSENT if free; null when indices is used
+	private final int[] slots;
+	private final int slotsMask;
+
+	/**
+	 * Constructs an empty mapping.
+	 */
+	public IndexMapping() {
+		this.elements = Collections.emptyList();
+		this.originalIDs = new int[0];
+		this.indices = new int[0];
+		this.minID = 0;
+		this.slots = null;
+		this.slotsMask = 0;
+	}
+
+	/**
+	 * Constructs the mapping of the given elements. When more elements have the
+	 * same ID, the last one is kept.
+	 *
+	 * @param elements   The elements.
+	 * @param idFunction The function returning the original ID of an element.
+	 */
+	public IndexMapping(Collection<T> elements, ToIntFunction<T> idFunction) {
+
+		List<T> sorted = new ArrayList<>(elements);
+		// stable: elements with the same ID keep their order
+		sorted.sort(Comparator.comparingInt(idFunction));
+
+		List<T> unique = new ArrayList<>(sorted.size());
+		int[] ids = new int[sorted.size()];
+		for (T element : sorted) {
+			int originalID = idFunction.applyAsInt(element);
+			int last = unique.size() - 1;
+			if (last >= 0 && ids[last] == originalID) {
+				unique.set(last, element);
+				continue;
+			}
+			ids[unique.size()] = originalID;
+			unique.add(element);
+		}
+		this.elements = Collections.unmodifiableList(unique);
+		this.originalIDs = Arrays.copyOf(ids, unique.size());
+
+		int size = originalIDs.length;
+		this.minID = size == 0 ? 0 : originalIDs[0];
+		long range = size == 0 ? 0 : (long) originalIDs[size - 1] - minID + 1;
+		if (range <= (long) MAX_TABLE_SPREAD * size) {
+			this.indices = new int[(int) range];
+			Arrays.fill(indices, ABSENT);
+			for (int index = 0; index < size; index++)
+				indices[originalIDs[index] - minID] = index;
+			this.slots = null;
+			this.slotsMask = 0;
+		} else {
+			this.indices = null;
+			this.slots = new int[Integer.highestOneBit(size * 2 - 1) << 1];
+			this.slotsMask = slots.length - 1;
+			Arrays.fill(slots, ABSENT);
+			for (int index = 0; index < size; index++) {
+				int slot = mix(originalIDs[index]) & slotsMask;
+				while (slots[slot] != ABSENT)
+					slot = (slot + 1) & slotsMask;
+				slots[slot] = index;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of elements.
+	 *
+	 * @return The number of elements, namely the bound of the indices.
+	 */
+	public int size() {
+		return elements.size();
+	}
+
+	/**
+	 * Returns the index of the element with the given original ID.
+	 *
+	 * @param originalID The original ID.
+	 * @return The index, or -1 if no element has the ID.
+	 */
+	public int indexOf(int originalID) {
+		if (indices == null) {
+			for (int slot = mix(originalID) & slotsMask; slots[slot] != ABSENT; slot = (slot + 1) & slotsMask)
+				if (originalIDs[slots[slot]] == originalID)
+					return slots[slot];
+			return ABSENT;
+		}
+		long offset = (long) originalID - minID;
+		return offset >= 0 && offset < indices.length ? indices[(int) offset] : ABSENT;
+	}
+
+	/**
+	 * Returns the original ID of the element with the given index.
+	 *
+	 * @param index The index.
+	 * @return The original ID.
+	 */
+	public int getOriginalID(int index) {
+		return originalIDs[index];
+	}
+
+	/**
+	 * Returns the element with the given original ID.
+	 *
+	 * @param originalID The original ID.
+	 * @return The element, or null if no element has the ID.
+	 */
+	public T get(int originalID) {
+		int index = indexOf(originalID);
+		return index == ABSENT ? null : elements.get(index);
+	}
+
+	/**
+	 * Returns the element with the given index.
+	 *
+	 * @param index The index.
+	 * @return The element.
+	 */
+	public T getByIndex(int index) {
+		return elements.get(index);
+	}
+
+	/**
+	 * Checks whether an element has the given original ID.
+	 *
+	 * @param originalID The original ID.
+	 * @return True if an element has the ID; otherwise, false.
+	 */
+	public boolean containsID(int originalID) {
+		return indexOf(originalID) != ABSENT;
+	}
+
+	/**
+	 * Returns the elements, in order of index (i.e. of original ID).
+	 *
+	 * @return An unmodifiable list of the elements.
+	 */
+	public List<T> values() {
+		return elements;
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return elements.iterator();
+	}
+
+	private static int mix(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
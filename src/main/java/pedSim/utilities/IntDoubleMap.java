@@ -0,0 +1,124 @@
+package pedSim.utilities;
+
+import java.util.Arrays;
+
+/**
+ * A minimal open-addressing hash map from primitive int keys to primitive
+ * double values. It avoids boxing in lookups performed in the innermost loops
+ * of the route-choice algorithms. Keys must be non-negative.
+ */
+public class IntDoubleMap {
+
+	private static final int FREE = -1;
+
+	private int[] keys;
+	private double[] values;
+	private int size = 0;
+	private int mask;
+
+	/**
+	 * Constructs an empty map sized for the expected number of entries.
+	 *
+	 * @param expectedSize The expected number of entries.
+	 */
+	public IntDoubleMap(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+		keys = new int[capacity];
+		values = new double[capacity];
+		Arrays.fill(keys, FREE);
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Returns the value mapped to the given key, or the default value if the key
+	 * is not in the map.
+	 *
+	 * @param key          The key, non-negative.
+	 * @param defaultValue The value returned when the key is absent.
+	 * @return The mapped value or the default value.
+	 */
+	public double get(int key, double defaultValue) {
+		int slot = slot(key);
+		return keys[slot] == key ? values[slot] : defaultValue;
+	}
+
+	/**
+	 * Checks whether the given key is in the map.
+	 *
+	 * @param key The key, non-negative.
+	 * @return True if the key is mapped; otherwise, false.
+	 */
+	public boolean containsKey(int key) {
+		return keys[slot(key)] == key;
+	}
+
+	/**
+	 * Maps the key to the given value, replacing any previous value.
+	 *
+	 * @param key   The key, non-negative.
+	 * @param value The value.
+	 */
+	public void put(int key, double value) {
+		int slot = slot(key);
+		if (keys[slot] == FREE) {
+			keys[slot] = key;
+			size++;
+			if (size * 2 > keys.length) {
+				values[slot] = value;
+				rehash();
+				return;
+			}
+		}
+		values[slot] = value;
+	}
+
+	/**
+	 * Maps the key to the given value, unless a greater or equal value is already
+	 * mapped to it.
+	 *
+	 * @param key   The key, non-negative.
+	 * @param value The value.
+	 */
+	public void putMax(int key, double value) {
+		int slot = slot(key);
+		if (keys[slot] != key || values[slot] < value)
+			put(key, value);
+	}
+
+	/**
+	 * Returns the number of entries in the map.
+	 *
+	 * @return The number of entries.
+	 */
+	public int size() {
+		return size;
+	}
+
+	private int slot(int key) {
+		int slot = mix(key) & mask;
+		while (keys[slot] != FREE && keys[slot] != key)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	private void rehash() {
+		int[] oldKeys = keys;
+		double[] oldValues = values;
+		keys = new int[oldKeys.length * 2];
+		values = new double[oldKeys.length * 2];
+		Arrays.fill(keys, FREE);
+		mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] == FREE)
+				continue;
+			int slot = slot(oldKeys[i]);
+			keys[slot] = oldKeys[i];
+			values[slot] = oldValues[i];
+		}
+	}
+
+	private static int mix(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}